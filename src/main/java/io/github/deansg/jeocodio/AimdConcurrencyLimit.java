@@ -0,0 +1,88 @@
+package io.github.deansg.jeocodio;
+
+/**
+ * An additive-increase/multiplicative-decrease {@link ConcurrencyLimit}. The limit grows by one per RTT, i.e. by
+ * {@code 1 / limit} for every successful request that completed while the limit was at least half used. It is
+ * multiplied by {@code backoffRatio} when a request is overloaded or the smoothed RTT exceeds {@code latencyTolerance}
+ * times the baseline RTT, at most once per RTT, so a single slowdown seen by many in-flight requests only counts once.
+ * <p>
+ * The smoothed RTT is an exponential moving average of the last few samples, so that ordinary latency jitter doesn't
+ * collapse the limit. The baseline is the lowest smoothed RTT seen so far. It is only raised when latency stays high
+ * even after the limit was cut to {@code minLimit}, meaning the API itself became slower rather than congested by this
+ * client. Raising it on a timer instead would let sustained self-inflicted queueing ratchet the limit up indefinitely.
+ */
+class AimdConcurrencyLimit implements ConcurrencyLimit {
+    static final int DEFAULT_INITIAL_LIMIT = 20;
+    static final int DEFAULT_MAX_LIMIT = 200;
+    private static final double DEFAULT_BACKOFF_RATIO = 0.9;
+    private static final double DEFAULT_LATENCY_TOLERANCE = 2.0;
+    private static final double RTT_SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private double limit;
+    private double smoothedRttNanos = -1;
+    private double baselineRttNanos = Double.MAX_VALUE;
+    private long lastDecreaseNanos;
+
+    AimdConcurrencyLimit(int maxLimit) {
+        this(Math.min(DEFAULT_INITIAL_LIMIT, maxLimit), 1, maxLimit, DEFAULT_BACKOFF_RATIO, DEFAULT_LATENCY_TOLERANCE);
+    }
+
+    AimdConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double latencyTolerance) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= minLimit <= initialLimit <= maxLimit");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.lastDecreaseNanos = System.nanoTime() - Long.MAX_VALUE / 2;
+    }
+
+    @Override
+    public int current() {
+        return (int) limit;
+    }
+
+    @Override
+    public int max() {
+        return maxLimit;
+    }
+
+    @Override
+    public void onSample(long rttNanos, int inFlight, boolean overload) {
+        if (!overload) {
+            updateRtt(rttNanos);
+        }
+        if (overload || smoothedRttNanos > baselineRttNanos * latencyTolerance) {
+            if (!overload && limit <= minLimit) {
+                baselineRttNanos = smoothedRttNanos;
+                return;
+            }
+            // A fast-failing 429 or 5xx has a tiny RTT of its own, so the window is the smoothed RTT of successes
+            long now = System.nanoTime();
+            if (now - lastDecreaseNanos >= (smoothedRttNanos >= 0 ? smoothedRttNanos : rttNanos)) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastDecreaseNanos = now;
+            }
+        } else if (inFlight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    private void updateRtt(long rttNanos) {
+        if (smoothedRttNanos < 0) {
+            smoothedRttNanos = rttNanos;
+        } else {
+            smoothedRttNanos += (rttNanos - smoothedRttNanos) * RTT_SMOOTHING;
+        }
+        baselineRttNanos = Math.min(baselineRttNanos, smoothedRttNanos);
+    }
+}
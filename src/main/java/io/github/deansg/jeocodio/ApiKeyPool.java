@@ -0,0 +1,211 @@
+package io.github.deansg.jeocodio;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spreads requests over several API keys. Each request goes to the available key with the lowest share of its
+ * requests per minute or daily lookups used, breaking ties round-robin. Once all keys used up their requests per
+ * minute, requests wait in {@link RequestScheduler} for the next minute, while requests that no key has enough daily
+ * lookups left for fail with a {@link GeocodioQuotaExceededException}. Bulk requests may only use up to
+ * {@code 1 - RESERVED_INTERACTIVE_SHARE} of each key's requests per minute and daily lookups, so that bulk jobs can't
+ * use up the budget interactive requests need.
+ * <p>
+ * A key that receives a 429 is only used until the next minute if all other keys received one too, and a key that
+ * receives a 403 for reaching its daily maximum isn't used until the next UTC midnight. The only exception is a pool of
+ * a single key, which keeps using it so that the caller gets the API's own errors, as with a client created with a
+ * single API key.
+ */
+class ApiKeyPool implements RequestAdmission {
+    static final double RESERVED_INTERACTIVE_SHARE = 0.1;
+    // Part of the message the API sends with a 403 once a key reached its daily maximum
+    private static final String DAILY_MAXIMUM_MESSAGE = "daily maximum";
+    private final List<KeyState> keys = new ArrayList<>();
+    private final Map<String, KeyState> keysByApiKey = new HashMap<>();
+    private final Clock clock;
+    private int nextKeyIndex;
+
+    ApiKeyPool(List<ApiKeyQuota> quotas) {
+        this(quotas, Clock.systemUTC());
+    }
+
+    ApiKeyPool(List<ApiKeyQuota> quotas, Clock clock) {
+        if (quotas == null || quotas.isEmpty()) {
+            throw new IllegalArgumentException("At least one API key is required");
+        }
+        for (var quota : quotas) {
+            var state = new KeyState(quota);
+            if (keysByApiKey.putIfAbsent(quota.apiKey(), state) != null) {
+                throw new IllegalArgumentException("Duplicate API key in the key pool");
+            }
+            keys.add(state);
+        }
+        this.clock = clock;
+    }
+
+    /**
+     * Picks a key for a request and counts the request against it
+     *
+     * @param priority The lane of the request, which decides how much of each key's budget it may use
+     * @param lookups  The number of lookups the request makes
+     * @return The API key to send the request with, or null if all keys that have enough daily lookups left used up
+     * their requests per minute
+     * @throws GeocodioQuotaExceededException if no key has enough daily lookups left, or all keys reached their daily
+     *                                        maximum
+     */
+    @Override
+    public synchronized String acquire(RequestPriority priority, int lookups) {
+        var now = clock.instant();
+        KeyState best = null;
+        double bestUsage = Double.MAX_VALUE;
+        boolean waitForNextMinute = false;
+        for (int i = 0; i < keys.size(); i++) {
+            var key = keys.get((nextKeyIndex + i) % keys.size());
+            key.roll(now);
+            if ((keys.size() > 1 && key.disabledUntil != null) || !key.hasDailyLookups(priority, lookups)) {
+                continue;
+            }
+            if (!key.hasRequestsThisMinute(priority)) {
+                waitForNextMinute = true;
+                continue;
+            }
+            double usage = key.usage();
+            if (usage < bestUsage) {
+                best = key;
+                bestUsage = usage;
+            }
+        }
+        if (best == null) {
+            if (waitForNextMinute) {
+                return null;
+            }
+            throw new GeocodioQuotaExceededException(lookups);
+        }
+        nextKeyIndex = (keys.indexOf(best) + 1) % keys.size();
+        best.requestsThisMinute++;
+        best.requests++;
+        best.lookupsToday += lookups;
+        best.lookups += lookups;
+        return best.quota.apiKey();
+    }
+
+    /**
+     * @return The time until the next minute, when the keys' requests per minute are available again
+     */
+    @Override
+    public Duration retryDelay() {
+        var now = clock.instant();
+        return Duration.between(now, now.truncatedTo(ChronoUnit.MINUTES).plus(1, ChronoUnit.MINUTES));
+    }
+
+    /**
+     * Deprioritizes the key if the API answered with a rate limit or daily maximum error. Other 403s, e.g. for an
+     * invalid key, are left to the caller.
+     */
+    synchronized void onResponse(String apiKey, int statusCode, String body) {
+        var key = keysByApiKey.get(apiKey);
+        var now = clock.instant();
+        if (statusCode == 429) {
+            key.rateLimitErrors++;
+            key.rateLimitedUntil = now.truncatedTo(ChronoUnit.MINUTES).plus(1, ChronoUnit.MINUTES);
+        } else if (statusCode == 403 && body != null && body.contains(DAILY_MAXIMUM_MESSAGE)) {
+            key.quotaErrors++;
+            key.disabledUntil = nextUTCMidnight(now);
+        }
+    }
+
+    synchronized List<ApiKeyUsage> usage() {
+        var now = clock.instant();
+        var usage = new ArrayList<ApiKeyUsage>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            var key = keys.get(i);
+            key.roll(now);
+            usage.add(new ApiKeyUsage(i, key.quota.maskedApiKey(), key.requests, key.lookups, key.lookupsToday,
+                    key.rateLimitErrors, key.quotaErrors, key.rateLimitedUntil, key.disabledUntil));
+        }
+        return usage;
+    }
+
+    private static Instant nextUTCMidnight(Instant now) {
+        return LocalDate.ofInstant(now, ZoneOffset.UTC).plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    private static class KeyState {
+        private final ApiKeyQuota quota;
+        private Instant minuteStart = Instant.MIN;
+        private LocalDate day = LocalDate.MIN;
+        private int requestsThisMinute;
+        private long lookupsToday;
+        private long requests;
+        private long lookups;
+        private long rateLimitErrors;
+        private long quotaErrors;
+        private Instant rateLimitedUntil;
+        private Instant disabledUntil;
+
+        private KeyState(ApiKeyQuota quota) {
+            this.quota = quota;
+        }
+
+        /**
+         * Resets the per minute and per day counters once their window is over
+         */
+        private void roll(Instant now) {
+            var currentMinute = now.truncatedTo(ChronoUnit.MINUTES);
+            if (!currentMinute.equals(minuteStart)) {
+                minuteStart = currentMinute;
+                requestsThisMinute = 0;
+            }
+            var today = LocalDate.ofInstant(now, ZoneOffset.UTC);
+            if (!today.equals(day)) {
+                day = today;
+                lookupsToday = 0;
+            }
+            if (rateLimitedUntil != null && !now.isBefore(rateLimitedUntil)) {
+                rateLimitedUntil = null;
+            }
+            if (disabledUntil != null && !now.isBefore(disabledUntil)) {
+                disabledUntil = null;
+            }
+        }
+
+        private boolean hasDailyLookups(RequestPriority priority, int lookups) {
+            return quota.dailyLookups() == null || lookupsToday + lookups <= budget(quota.dailyLookups(), priority);
+        }
+
+        private boolean hasRequestsThisMinute(RequestPriority priority) {
+            return quota.requestsPerMinute() == null
+                    || requestsThisMinute < budget(quota.requestsPerMinute(), priority);
+        }
+
+        private static long budget(int limit, RequestPriority priority) {
+            if (priority == RequestPriority.INTERACTIVE) {
+                return limit;
+            }
+            return limit - (long) Math.floor(limit * RESERVED_INTERACTIVE_SHARE);
+        }
+
+        /**
+         * @return The higher of the used shares of the key's requests per minute and daily lookups, or 0 if unlimited.
+         * Keys that were recently rate limited rank after all others.
+         */
+        private double usage() {
+            double usage = 0;
+            if (quota.requestsPerMinute() != null) {
+                usage = (double) requestsThisMinute / quota.requestsPerMinute();
+            }
+            if (quota.dailyLookups() != null) {
+                usage = Math.max(usage, (double) lookupsToday / quota.dailyLookups());
+            }
+            return rateLimitedUntil != null ? usage + 1 : usage;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package io.github.deansg.jeocodio;
+
+import io.soabase.recordbuilder.core.RecordBuilder;
+
+/**
+ * A Geocodio API key in the client's key pool, and the limits the client keeps it within
+ *
+ * @param apiKey            The Geocodio API key
+ * @param requestsPerMinute The maximum number of requests to send with this key per minute. Once all keys reached it,
+ *                          further requests wait for the next minute. Default is unlimited.
+ * @param dailyLookups      The maximum number of lookups to make with this key per UTC day, where a batch request
+ *                          counts as one lookup per address. Once no key has enough lookups left for a request, it
+ *                          fails with a {@link GeocodioQuotaExceededException}. Default is unlimited.
+ *                          <p>
+ *                          {@link RequestPriority#BULK} requests may only use 90% of both limits, leaving the rest for
+ *                          {@link RequestPriority#INTERACTIVE} requests.
+ */
+@RecordBuilder
+public record ApiKeyQuota(String apiKey,
+                          Integer requestsPerMinute,
+                          Integer dailyLookups) {
+
+    private static final int VISIBLE_KEY_CHARACTERS = 4;
+
+    public ApiKeyQuota(String apiKey) {
+        this(apiKey, null, null);
+    }
+
+    /**
+     * @return The API key with all but its last 4 characters hidden, or fully hidden if it is too short for that to be
+     * safe, for use in logs
+     */
+    public String maskedApiKey() {
+        if (apiKey == null || apiKey.length() < 2 * VISIBLE_KEY_CHARACTERS) {
+            return "****";
+        }
+        return "****" + apiKey.substring(apiKey.length() - VISIBLE_KEY_CHARACTERS);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ApiKeyQuota[apiKey=%s, requestsPerMinute=%s, dailyLookups=%s]",
+                maskedApiKey(), requestsPerMinute, dailyLookups);
+    }
+}
@@ -0,0 +1,28 @@
+package io.github.deansg.jeocodio;
+
+import java.time.Instant;
+
+/**
+ * A snapshot of how much a single API key of the client was used
+ *
+ * @param index            The index of the key in the list the client was created with
+ * @param maskedApiKey     The key with all but its last characters hidden, see {@link ApiKeyQuota#maskedApiKey()}
+ * @param requests         Total requests sent with this key
+ * @param lookups          Total lookups made with this key, where a batch request counts as one lookup per address
+ * @param lookupsToday     Lookups made with this key since the last UTC midnight
+ * @param rateLimitErrors  Total 429 responses to requests sent with this key
+ * @param quotaErrors      Total 403 responses to requests sent with this key because its daily maximum was reached
+ * @param rateLimitedUntil Until when the client prefers other keys over this one after a 429, or null
+ * @param disabledUntil    When the client will use this key again after it reached its daily maximum, or null. A
+ *                         client with a single key keeps using it regardless.
+ */
+public record ApiKeyUsage(int index,
+                          String maskedApiKey,
+                          long requests,
+                          long lookups,
+                          long lookupsToday,
+                          long rateLimitErrors,
+                          long quotaErrors,
+                          Instant rateLimitedUntil,
+                          Instant disabledUntil) {
+}
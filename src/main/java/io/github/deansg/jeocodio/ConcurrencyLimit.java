@@ -0,0 +1,48 @@
+package io.github.deansg.jeocodio;
+
+/**
+ * The number of requests {@link RequestScheduler} may have in flight. Only accessed while holding the scheduler's lock.
+ */
+interface ConcurrencyLimit {
+    /**
+     * @return The current limit
+     */
+    int current();
+
+    /**
+     * @return The highest value {@link #current()} may reach
+     */
+    int max();
+
+    /**
+     * Called whenever a request completes
+     *
+     * @param rttNanos The time from sending the request until its response was read
+     * @param inFlight The number of requests in flight when the request completed, including itself. Reported as at
+     *                 least {@link #current()} while queued requests wait only because of their lane's share, since
+     *                 they would use the whole limit if it weren't for the reservation.
+     * @param overload Whether the request failed in a way that indicates the API is overloaded, e.g. a 429 or a 5xx
+     */
+    void onSample(long rttNanos, int inFlight, boolean overload);
+
+    static ConcurrencyLimit fixed(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("maxConcurrentRequests must be positive");
+        }
+        return new ConcurrencyLimit() {
+            @Override
+            public int current() {
+                return limit;
+            }
+
+            @Override
+            public int max() {
+                return limit;
+            }
+
+            @Override
+            public void onSample(long rttNanos, int inFlight, boolean overload) {
+            }
+        };
+    }
+}
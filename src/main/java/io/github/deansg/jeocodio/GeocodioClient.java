@@ -16,6 +16,7 @@ import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.zip.GZIPInputStream;
 
@@ -23,9 +24,11 @@ public class GeocodioClient {
     public static final String DEFAULT_BASE_URL = "https://api.geocod.io/v1.7/";
     private static final GeocodioClientOptions DEFAULT_OPTIONS = new GeocodioClientOptions(true, DEFAULT_BASE_URL);
     private final HttpClient httpClient;
-    private final String apiKey;
+    private final ApiKeyPool apiKeyPool;
     private final Gson gson;
     private final GeocodioClientOptions options;
+    private final RequestScheduler scheduler;
+    private final StringInterner stringInterner;
 
     //region Constructors
 
@@ -66,16 +69,58 @@ public class GeocodioClient {
      * @param options    The client options
      */
     public GeocodioClient(HttpClient httpClient, String apiKey, GeocodioClientOptions options) {
+        this(httpClient, List.of(new ApiKeyQuota(apiKey)), options);
+    }
+
+    /**
+     * Creates a new GeocodioClient with a default {@link HttpClient} and provided client options, that spreads its
+     * requests over several API keys
+     *
+     * @param apiKeys The Geocodio API keys, and the limits to keep each of them within
+     * @param options The client options
+     */
+    public GeocodioClient(List<ApiKeyQuota> apiKeys, GeocodioClientOptions options) {
+        this(defaultHTTPClient(), apiKeys, options);
+    }
+
+    /**
+     * Creates a new GeocodioClient with the provided {@link HttpClient} and provided client options, that spreads its
+     * requests over several API keys
+     *
+     * @param httpClient The HttpClient
+     * @param apiKeys    The Geocodio API keys, and the limits to keep each of them within
+     * @param options    The client options
+     */
+    public GeocodioClient(HttpClient httpClient, List<ApiKeyQuota> apiKeys, GeocodioClientOptions options) {
         this.httpClient = httpClient;
-        this.apiKey = apiKey;
-        this.gson = new GsonBuilder().setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES).create();
+        this.apiKeyPool = new ApiKeyPool(apiKeys);
+        this.stringInterner = Optional.ofNullable(options.internStrings()).orElse(false) ? new StringInterner() : null;
+        this.gson = createGson(stringInterner);
         this.options = options;
+        this.scheduler = new RequestScheduler(concurrencyLimit(options),
+                Optional.ofNullable(options.reservedInteractiveRequests()).orElse(0), apiKeyPool);
     }
 
     private static HttpClient defaultHTTPClient() {
         return HttpClient.newHttpClient();
     }
 
+    private static Gson createGson(StringInterner stringInterner) {
+        var builder = new GsonBuilder().setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES);
+        if (stringInterner != null) {
+            builder.registerTypeAdapterFactory(new InterningTypeAdapterFactory(stringInterner));
+        }
+        return builder.create();
+    }
+
+    private static ConcurrencyLimit concurrencyLimit(GeocodioClientOptions options) {
+        if (Optional.ofNullable(options.adaptiveConcurrency()).orElse(false)) {
+            return new AimdConcurrencyLimit(Optional.ofNullable(options.maxConcurrentRequests())
+                    .orElse(AimdConcurrencyLimit.DEFAULT_MAX_LIMIT));
+        }
+        return ConcurrencyLimit.fixed(Optional.ofNullable(options.maxConcurrentRequests()).orElse(Integer.MAX_VALUE));
+    }
+
     //endregion
 
     /**
@@ -90,13 +135,25 @@ public class GeocodioClient {
     }
 
     /**
-     * See <a href="https://www.geocod.io/docs/#single-address">this</a> for full documentation
+     * See <a href="https://www.geocod.io/docs/#single-address">this</a> for full documentation. Scheduled as
+     * {@link RequestPriority#INTERACTIVE}
      *
      * @param request The full geocoding request
      * @return a future of {@link GeocodingResponse}
      */
     public CompletableFuture<GeocodingResponse> geocodeAsync(GeocodingRequest request) {
-        var query = initializeRequestQuery();
+        return geocodeAsync(request, RequestPriority.INTERACTIVE);
+    }
+
+    /**
+     * See <a href="https://www.geocod.io/docs/#single-address">this</a> for full documentation
+     *
+     * @param request  The full geocoding request
+     * @param priority The lane to schedule the request in
+     * @return a future of {@link GeocodingResponse}
+     */
+    public CompletableFuture<GeocodingResponse> geocodeAsync(GeocodingRequest request, RequestPriority priority) {
+        var query = new HashMap<String, String>();
         query.put("q", request.q());
         query.put("country", request.country());
         query.put("fields", formatFieldsParam(request.fields()));
@@ -106,48 +163,101 @@ public class GeocodioClient {
         query.put("city", request.city());
         query.put("state", request.state());
         query.put("postal_code", request.postalCode());
-        var uri = buildURI("geocode", query);
-        var httpRequest = buildHTTPRequest(HttpRequest.newBuilder()
+        return sendAsync(apiKey -> buildHTTPRequest(HttpRequest.newBuilder()
                 .GET()
-                .uri(uri));
-        return sendAsync(httpRequest, GeocodingResponse.class);
+                .uri(buildURI("geocode", query, apiKey))), 1, GeocodingResponse.class, priority);
     }
 
     /**
-     * See <a href="https://www.geocod.io/docs/#batch-geocoding">this</a> for full documentation
+     * See <a href="https://www.geocod.io/docs/#batch-geocoding">this</a> for full documentation. Scheduled as
+     * {@link RequestPriority#BULK}
      *
      * @param request The full geocoding request
      * @return a future of {@link BatchGeocodingResponse}
      */
     public CompletableFuture<BatchGeocodingResponse> batchGeocodeAsync(BatchGeocodingRequest request) {
-        var query = initializeRequestQuery();
+        return batchGeocodeAsync(request, RequestPriority.BULK);
+    }
+
+    /**
+     * See <a href="https://www.geocod.io/docs/#batch-geocoding">this</a> for full documentation
+     *
+     * @param request  The full geocoding request
+     * @param priority The lane to schedule the request in
+     * @return a future of {@link BatchGeocodingResponse}
+     */
+    public CompletableFuture<BatchGeocodingResponse> batchGeocodeAsync(BatchGeocodingRequest request,
+                                                                       RequestPriority priority) {
+        var query = new HashMap<String, String>();
         query.put("fields", formatFieldsParam(request.fields()));
         query.put("limit", Optional.ofNullable(request.limit()).map(Object::toString).orElse(null));
-        var uri = buildURI("geocode", query);
-        var httpRequest = buildHTTPRequest(HttpRequest.newBuilder()
-                .POST(HttpRequest.BodyPublishers.ofString(this.gson.toJson(request.qs())))
-                .header("Content-Type", "application/json")
-                .uri(uri));
-        return sendAsync(httpRequest, BatchGeocodingResponse.class);
+        var body = this.gson.toJson(request.qs());
+        return sendAsync(apiKey -> buildHTTPRequest(HttpRequest.newBuilder()
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .header("Content-Type", "application/json")
+                        .uri(buildURI("geocode", query, apiKey))),
+                request.qs().size(), BatchGeocodingResponse.class, priority);
     }
 
     /**
-     * See <a href="https://www.geocod.io/docs/#reverse-geocoding-single-coordinate">this</a> for full documentation
+     * See <a href="https://www.geocod.io/docs/#reverse-geocoding-single-coordinate">this</a> for full documentation.
+     * Scheduled as {@link RequestPriority#INTERACTIVE}
      *
      * @param request The reverse geocoding request
      * @return a future of {@link ReverseGeocodingResponse}
      */
     public CompletableFuture<ReverseGeocodingResponse> reverseGeocodeAsync(ReverseGeocodingRequest request) {
-        var query = initializeRequestQuery();
+        return reverseGeocodeAsync(request, RequestPriority.INTERACTIVE);
+    }
+
+    /**
+     * See <a href="https://www.geocod.io/docs/#reverse-geocoding-single-coordinate">this</a> for full documentation
+     *
+     * @param request  The reverse geocoding request
+     * @param priority The lane to schedule the request in
+     * @return a future of {@link ReverseGeocodingResponse}
+     */
+    public CompletableFuture<ReverseGeocodingResponse> reverseGeocodeAsync(ReverseGeocodingRequest request,
+                                                                           RequestPriority priority) {
+        var query = new HashMap<String, String>();
         query.put("q", String.format("%s,%s", request.latitude(), request.longitude()));
         query.put("fields", formatFieldsParam(request.fields()));
         query.put("limit", Optional.ofNullable(request.limit()).map(Object::toString).orElse(null));
         query.put("format", request.format());
-        var uri = buildURI("reverse", query);
-        var httpRequest = buildHTTPRequest(HttpRequest.newBuilder()
+        return sendAsync(apiKey -> buildHTTPRequest(HttpRequest.newBuilder()
                 .GET()
-                .uri(uri));
-        return sendAsync(httpRequest, ReverseGeocodingResponse.class);
+                .uri(buildURI("reverse", query, apiKey))), 1, ReverseGeocodingResponse.class, priority);
+    }
+
+    /**
+     * @param priority The lane
+     * @return The current scheduling metrics of the lane, such as how long its requests waited for a free slot
+     */
+    public LaneStats laneStats(RequestPriority priority) {
+        return scheduler.stats(priority);
+    }
+
+    /**
+     * @return The number of requests the client currently allows in flight. Changes over time when
+     * {@link GeocodioClientOptions#adaptiveConcurrency()} is set.
+     */
+    public int concurrencyLimit() {
+        return scheduler.concurrencyLimit();
+    }
+
+    /**
+     * @return How much each of the client's API keys was used, in the order they were provided
+     */
+    public List<ApiKeyUsage> apiKeyUsage() {
+        return apiKeyPool.usage();
+    }
+
+    /**
+     * @return How many decoded strings were deduplicated and the approximate heap that saved, or null if
+     * {@link GeocodioClientOptions#internStrings()} isn't set
+     */
+    public InternedStringStats internedStringStats() {
+        return stringInterner == null ? null : stringInterner.stats();
     }
 
     private String formatFieldsParam(List<String> fields) {
@@ -157,19 +267,29 @@ public class GeocodioClient {
         return String.join(",", fields);
     }
 
-    private <T> CompletableFuture<T> sendAsync(HttpRequest httpRequest, Class<T> clazz) {
-        return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofInputStream())
-                .thenApply(this::readResponse)
+    /**
+     * @param requestFactory Builds the request given the API key to send it with. The key is only picked once the
+     *                       request is dispatched, so that queued requests don't count against its rate.
+     * @param lookups        The number of lookups the request makes
+     */
+    private <T> CompletableFuture<T> sendAsync(Function<String, HttpRequest> requestFactory, int lookups, Class<T> clazz,
+                                               RequestPriority priority) {
+        return scheduler.submit(priority, lookups, apiKey ->
+                        httpClient.sendAsync(requestFactory.apply(apiKey), HttpResponse.BodyHandlers.ofInputStream())
+                                .thenApply(resp -> {
+                                    var json = readResponseBody(resp);
+                                    apiKeyPool.onResponse(apiKey, resp.statusCode(), json);
+                                    if (resp.statusCode() != 200) {
+                                        throw new GeocodioStatusCodeException(resp.statusCode(), json);
+                                    }
+                                    return json;
+                                }))
                 .thenApply(str -> this.gson.fromJson(str, clazz));
     }
 
-    private String readResponse(HttpResponse<InputStream> resp) {
+    private String readResponseBody(HttpResponse<InputStream> resp) {
         try (var inputStream = getResponseInputStream(resp)) {
-            String json = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
-            if (resp.statusCode() != 200) {
-                throw new GeocodioStatusCodeException(resp.statusCode(), json);
-            }
-            return json;
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
@@ -188,8 +308,10 @@ public class GeocodioClient {
         return inputStream;
     }
 
-    private URI buildURI(String endpoint, Map<String, String> query) {
-        var queryString = query.entrySet()
+    private URI buildURI(String endpoint, Map<String, String> query, String apiKey) {
+        var queryWithApiKey = new HashMap<>(query);
+        queryWithApiKey.put("api_key", apiKey);
+        var queryString = queryWithApiKey.entrySet()
                 .stream()
                 .sorted(Map.Entry.comparingByKey())
                 .filter(entry -> entry.getValue() != null)
@@ -213,10 +335,4 @@ public class GeocodioClient {
         }
         return baseUrl;
     }
-
-    private Map<String, String> initializeRequestQuery() {
-        var query = new HashMap<String, String>();
-        query.put("api_key", this.apiKey);
-        return query;
-    }
 }
@@ -6,7 +6,30 @@ import io.soabase.recordbuilder.core.RecordBuilder;
  *
  * @param gzip whether to request that the API will gzip its responses. Default is true.
  * @param BaseURL The Geocodio API base URL. Default is {@link GeocodioClient#DEFAULT_BASE_URL}
+ * @param maxConcurrentRequests The maximum number of requests the client sends at the same time. Further requests are
+ *                              queued by {@link RequestPriority}. Default is unlimited, or 200 when
+ *                              {@code adaptiveConcurrency} is set.
+ * @param reservedInteractiveRequests How many of the {@code maxConcurrentRequests} slots only
+ *                                    {@link RequestPriority#INTERACTIVE} requests may use, so that bulk jobs can't
+ *                                    starve them. Must be lower than {@code maxConcurrentRequests}. Default is 0.
+ * @param adaptiveConcurrency Whether to adapt the concurrency limit to the API's observed latency, between 1 and
+ *                            {@code maxConcurrentRequests}. The limit is raised while latency stays flat, and cut when
+ *                            latency rises or the API returns 429 or 5xx errors. See
+ *                            {@link GeocodioClient#concurrencyLimit()}. Default is false.
+ * @param internStrings Whether decoded results should share a single instance of each repeated state, county,
+ *                      country, city, street suffix, accuracy type and source, which saves heap when many results are
+ *                      retained, e.g. from large batches. See {@link GeocodioClient#internedStringStats()}. Default is
+ *                      false.
  */
 @RecordBuilder
-public record GeocodioClientOptions(Boolean gzip, String BaseURL) {
+public record GeocodioClientOptions(Boolean gzip,
+                                    String BaseURL,
+                                    Integer maxConcurrentRequests,
+                                    Integer reservedInteractiveRequests,
+                                    Boolean adaptiveConcurrency,
+                                    Boolean internStrings) {
+
+    public GeocodioClientOptions(Boolean gzip, String BaseURL) {
+        this(gzip, BaseURL, null, null, null, null);
+    }
 }
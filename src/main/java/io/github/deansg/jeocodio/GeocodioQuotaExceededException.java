@@ -0,0 +1,8 @@
+package io.github.deansg.jeocodio;
+
+public class GeocodioQuotaExceededException extends RuntimeException {
+    public GeocodioQuotaExceededException(int lookups) {
+        super(String.format("No API key has enough quota left for %s lookups. All keys either reached the " +
+                "requests per minute or daily lookups set in their ApiKeyQuota, or their daily maximum", lookups));
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.deansg.jeocodio;
+
+/**
+ * A snapshot of the client's table of deduplicated strings, see {@link GeocodioClientOptions#internStrings()}
+ *
+ * @param size       Distinct strings currently in the table
+ * @param maxSize    The most distinct strings the table holds. Further new strings are kept as they are.
+ * @param hits       Total decoded strings that were replaced by an instance already in the table
+ * @param rejected   Total decoded strings that weren't in the table and couldn't be added because it was full
+ * @param bytesSaved Approximate heap, in bytes, of all the strings that were replaced by an instance in the table. Only
+ *                   saved for as long as the results holding them are retained.
+ */
+public record InternedStringStats(int size,
+                                  int maxSize,
+                                  long hits,
+                                  long rejected,
+                                  long bytesSaved) {
+}
@@ -0,0 +1,84 @@
+package io.github.deansg.jeocodio;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import io.github.deansg.jeocodio.models.AddressComponents;
+import io.github.deansg.jeocodio.models.GeocodingResult;
+
+import java.io.IOException;
+import java.util.function.UnaryOperator;
+
+/**
+ * Deduplicates the low-cardinality string fields of decoded results through a {@link StringInterner}: the state,
+ * county, country, city and suffix of {@link AddressComponents}, and the accuracy type and source of
+ * {@link GeocodingResult}. Gson still allocates each string while decoding, but the copies are garbage right away
+ * instead of being retained with the results.
+ */
+class InterningTypeAdapterFactory implements TypeAdapterFactory {
+    private final StringInterner interner;
+
+    InterningTypeAdapterFactory(StringInterner interner) {
+        this.interner = interner;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() == AddressComponents.class) {
+            var delegate = gson.getDelegateAdapter(this, TypeToken.get(AddressComponents.class));
+            return (TypeAdapter<T>) interning(delegate, this::intern);
+        }
+        if (type.getRawType() == GeocodingResult.class) {
+            var delegate = gson.getDelegateAdapter(this, TypeToken.get(GeocodingResult.class));
+            return (TypeAdapter<T>) interning(delegate, this::intern);
+        }
+        return null;
+    }
+
+    private AddressComponents intern(AddressComponents components) {
+        return new AddressComponents(components.number(),
+                components.predirectional(),
+                components.prefix(),
+                components.street(),
+                interner.intern(components.suffix()),
+                components.postdirectional(),
+                components.secondaryunit(),
+                components.secondarynumber(),
+                interner.intern(components.city()),
+                interner.intern(components.county()),
+                interner.intern(components.state()),
+                components.zip(),
+                interner.intern(components.country()),
+                components.formattedStreet());
+    }
+
+    private GeocodingResult intern(GeocodingResult result) {
+        return new GeocodingResult(result.addressComponents(),
+                result.formattedAddress(),
+                result.location(),
+                result.accuracy(),
+                interner.intern(result.accuracyType()),
+                interner.intern(result.source()),
+                result.fields(),
+                result.warnings());
+    }
+
+    private static <T> TypeAdapter<T> interning(TypeAdapter<T> delegate, UnaryOperator<T> intern) {
+        return new TypeAdapter<>() {
+            @Override
+            public void write(JsonWriter out, T value) throws IOException {
+                delegate.write(out, value);
+            }
+
+            @Override
+            public T read(JsonReader in) throws IOException {
+                var value = delegate.read(in);
+                return value == null ? null : intern.apply(value);
+            }
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package io.github.deansg.jeocodio;
+
+import java.time.Duration;
+
+/**
+ * A snapshot of the scheduling metrics of a single {@link RequestPriority} lane
+ *
+ * @param priority       The lane
+ * @param queued         Requests currently waiting for a free slot
+ * @param inFlight       Requests currently sent and not yet answered
+ * @param dispatched     Total requests that were sent so far
+ * @param totalQueueTime Total time dispatched requests spent waiting for a free slot
+ * @param maxQueueTime   Longest time a single dispatched request spent waiting for a free slot
+ */
+public record LaneStats(RequestPriority priority,
+                        int queued,
+                        int inFlight,
+                        long dispatched,
+                        Duration totalQueueTime,
+                        Duration maxQueueTime) {
+
+    public Duration averageQueueTime() {
+        if (dispatched == 0) {
+            return Duration.ZERO;
+        }
+        return totalQueueTime.dividedBy(dispatched);
+    }
+}
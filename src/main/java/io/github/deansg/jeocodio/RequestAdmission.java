@@ -0,0 +1,36 @@
+package io.github.deansg.jeocodio;
+
+import java.time.Duration;
+
+/**
+ * Decides whether {@link RequestScheduler} may send a dispatched request right away, and what to send it with. Only
+ * called while holding the scheduler's lock.
+ */
+interface RequestAdmission {
+    /**
+     * @param priority The lane of the request
+     * @param lookups  The number of lookups the request makes
+     * @return What to send the request with, e.g. an API key, or null if it has to wait for {@link #retryDelay()}
+     * @throws RuntimeException to fail the request without sending it
+     */
+    String acquire(RequestPriority priority, int lookups);
+
+    /**
+     * @return How long to wait before trying to admit requests again after {@link #acquire} returned null
+     */
+    Duration retryDelay();
+
+    static RequestAdmission unlimited() {
+        return new RequestAdmission() {
+            @Override
+            public String acquire(RequestPriority priority, int lookups) {
+                return "";
+            }
+
+            @Override
+            public Duration retryDelay() {
+                return Duration.ZERO;
+            }
+        };
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.deansg.jeocodio;
+
+/**
+ * The lane a request is scheduled in when the client limits its concurrent requests. See
+ * {@link GeocodioClientOptions#maxConcurrentRequests()}
+ */
+public enum RequestPriority {
+    /**
+     * User-facing lookups. Dispatched before any queued bulk request, and may use the slots reserved by
+     * {@link GeocodioClientOptions#reservedInteractiveRequests()}. The default for single and reverse geocoding.
+     */
+    INTERACTIVE,
+    /**
+     * Background jobs, such as nightly batches. Only use the slots that aren't reserved for interactive requests. The
+     * default for batch geocoding.
+     */
+    BULK
+}
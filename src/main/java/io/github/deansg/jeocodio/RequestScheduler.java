@@ -0,0 +1,283 @@
+package io.github.deansg.jeocodio;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Limits the number of requests in flight to a {@link ConcurrencyLimit}, queueing the rest in one FIFO lane per
+ * {@link RequestPriority}. Whenever a slot frees up, queued interactive requests are dispatched first. Bulk requests
+ * are only dispatched while fewer than {@code limit - reservedInteractiveRequests} bulk requests are in flight. That
+ * share is at least one even when an adaptive limit shrinks below the reservation, but it is only a cap: interactive
+ * requests aren't limited to their reservation, so a steady stream of them can hold every slot and bulk requests then
+ * wait until one is free.
+ * <p>
+ * Before being dispatched, each request must also be admitted by a {@link RequestAdmission}, which picks the API key it
+ * is sent with. While the request at the head of a lane can't be admitted yet, e.g. because the keys used up their
+ * requests per minute, the lane waits and dispatching is retried once the admission's retry delay passes. A request
+ * the admission rejects fails right away without using a slot.
+ */
+class RequestScheduler {
+    private final ConcurrencyLimit limit;
+    private final int reservedInteractiveRequests;
+    private final RequestAdmission admission;
+    private final Map<RequestPriority, Lane> lanes = new EnumMap<>(RequestPriority.class);
+    private final Queue<PendingRequest<?>> toStart = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger starting = new AtomicInteger();
+    private int inFlight;
+    private boolean retryScheduled;
+
+    RequestScheduler(int maxConcurrentRequests, int reservedInteractiveRequests) {
+        this(ConcurrencyLimit.fixed(maxConcurrentRequests), reservedInteractiveRequests);
+    }
+
+    RequestScheduler(ConcurrencyLimit limit, int reservedInteractiveRequests) {
+        this(limit, reservedInteractiveRequests, RequestAdmission.unlimited());
+    }
+
+    RequestScheduler(ConcurrencyLimit limit, int reservedInteractiveRequests, RequestAdmission admission) {
+        if (reservedInteractiveRequests < 0 || reservedInteractiveRequests >= limit.max()) {
+            throw new IllegalArgumentException("reservedInteractiveRequests must be between 0 and maxConcurrentRequests - 1");
+        }
+        this.limit = limit;
+        this.reservedInteractiveRequests = reservedInteractiveRequests;
+        this.admission = admission;
+        for (var priority : RequestPriority.values()) {
+            lanes.put(priority, new Lane());
+        }
+    }
+
+    /**
+     * @param lookups The number of lookups the request makes, passed to the {@link RequestAdmission}
+     * @param send    Sends the request with what the admission returned. Only called once the request is dispatched. If
+     *                it throws, the request fails right away and frees its slot without affecting the concurrency
+     *                limit.
+     * @return A future of the result of {@code send}
+     */
+    <T> CompletableFuture<T> submit(RequestPriority priority, int lookups,
+                                    Function<String, CompletableFuture<T>> send) {
+        var request = new PendingRequest<>(priority, lookups, send);
+        List<PendingRequest<?>> dispatched;
+        synchronized (this) {
+            lanes.get(priority).queue.add(request);
+            dispatched = dispatchAvailable();
+        }
+        startAll(dispatched);
+        return request.result;
+    }
+
+    synchronized LaneStats stats(RequestPriority priority) {
+        var lane = lanes.get(priority);
+        return new LaneStats(priority, lane.queue.size(), lane.inFlight, lane.dispatched,
+                Duration.ofNanos(lane.totalQueueNanos), Duration.ofNanos(lane.maxQueueNanos));
+    }
+
+    synchronized int concurrencyLimit() {
+        return limit.current();
+    }
+
+    private List<PendingRequest<?>> dispatchAvailable() {
+        var dispatched = new ArrayList<PendingRequest<?>>();
+        var interactive = lanes.get(RequestPriority.INTERACTIVE);
+        var bulk = lanes.get(RequestPriority.BULK);
+        long now = System.nanoTime();
+        int currentLimit = limit.current();
+        int bulkLimit = bulkLimit(currentLimit);
+        boolean interactiveWaiting = false;
+        boolean bulkWaiting = false;
+        while (inFlight < currentLimit) {
+            Lane lane;
+            if (!interactive.queue.isEmpty() && !interactiveWaiting) {
+                lane = interactive;
+            } else if (!bulk.queue.isEmpty() && bulk.inFlight < bulkLimit && !bulkWaiting) {
+                lane = bulk;
+            } else {
+                break;
+            }
+            var request = lane.queue.peek();
+            try {
+                request.admittedWith = admission.acquire(request.priority, request.lookups);
+            } catch (RuntimeException e) {
+                lane.queue.remove();
+                request.rejection = e;
+                dispatched.add(request);
+                continue;
+            }
+            if (request.admittedWith == null) {
+                if (lane == interactive) {
+                    interactiveWaiting = true;
+                } else {
+                    bulkWaiting = true;
+                }
+                scheduleRetry();
+                continue;
+            }
+            lane.queue.remove();
+            long queueNanos = now - request.enqueuedNanos;
+            lane.inFlight++;
+            lane.dispatched++;
+            lane.totalQueueNanos += queueNanos;
+            lane.maxQueueNanos = Math.max(lane.maxQueueNanos, queueNanos);
+            inFlight++;
+            dispatched.add(request);
+        }
+        return dispatched;
+    }
+
+    private void scheduleRetry() {
+        if (retryScheduled) {
+            return;
+        }
+        retryScheduled = true;
+        CompletableFuture.delayedExecutor(admission.retryDelay().toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            List<PendingRequest<?>> dispatched;
+            synchronized (this) {
+                retryScheduled = false;
+                dispatched = dispatchAvailable();
+            }
+            startAll(dispatched);
+        });
+    }
+
+    private int bulkLimit(int currentLimit) {
+        return Math.max(1, currentLimit - reservedInteractiveRequests);
+    }
+
+    /**
+     * Bulk requests held back only by the interactive reservation count as using the whole limit. Otherwise an adaptive
+     * limit could never grow past twice the bulk share with bulk-only traffic, since it only grows while at least half
+     * used, and a reservation above half the initial limit would cap bulk throughput for good.
+     */
+    private int inFlightForLimit() {
+        var bulk = lanes.get(RequestPriority.BULK);
+        int currentLimit = limit.current();
+        if (!bulk.queue.isEmpty() && bulk.inFlight >= bulkLimit(currentLimit)) {
+            return Math.max(inFlight, currentLimit);
+        }
+        return inFlight;
+    }
+
+    /**
+     * Starts the dispatched requests, and fails the rejected ones, on this thread, unless another thread is already
+     * starting requests, in which case that thread starts them too. A request whose send fails synchronously completes
+     * inline and dispatches the next one from within {@code start}, so starting them recursively could overflow the
+     * stack with a long enough queue.
+     */
+    private void startAll(List<PendingRequest<?>> dispatched) {
+        if (dispatched.isEmpty()) {
+            return;
+        }
+        toStart.addAll(dispatched);
+        if (starting.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            PendingRequest<?> request;
+            while ((request = toStart.poll()) != null) {
+                if (request.rejection != null) {
+                    request.result.completeExceptionally(request.rejection);
+                } else {
+                    start(request);
+                }
+            }
+        } while (starting.decrementAndGet() != 0);
+    }
+
+    private <T> void start(PendingRequest<T> request) {
+        long sentNanos = System.nanoTime();
+        CompletableFuture<T> sent;
+        try {
+            sent = request.send.apply(request.admittedWith);
+        } catch (RuntimeException e) {
+            // Nothing was sent, so there's no RTT to sample either
+            List<PendingRequest<?>> dispatched = List.of();
+            try {
+                dispatched = release(request.priority);
+            } finally {
+                request.result.completeExceptionally(e);
+            }
+            startAll(dispatched);
+            return;
+        }
+        sent.whenComplete((result, error) -> {
+            List<PendingRequest<?>> dispatched = List.of();
+            try {
+                dispatched = release(request.priority, System.nanoTime() - sentNanos, error != null && isOverload(error));
+            } finally {
+                if (error != null) {
+                    request.result.completeExceptionally(error);
+                } else {
+                    request.result.complete(result);
+                }
+            }
+            startAll(dispatched);
+        });
+    }
+
+    /**
+     * @return The requests dispatched to the freed slot, to be started by the caller
+     */
+    private synchronized List<PendingRequest<?>> release(RequestPriority priority, long rttNanos, boolean overload) {
+        try {
+            limit.onSample(rttNanos, inFlightForLimit(), overload);
+        } finally {
+            lanes.get(priority).inFlight--;
+            inFlight--;
+        }
+        return dispatchAvailable();
+    }
+
+    private synchronized List<PendingRequest<?>> release(RequestPriority priority) {
+        lanes.get(priority).inFlight--;
+        inFlight--;
+        return dispatchAvailable();
+    }
+
+    /**
+     * Client errors such as 422 are the caller's fault, so they say nothing about the API's load. Anything else,
+     * including I/O errors and timeouts, is treated as a sign of overload.
+     */
+    private static boolean isOverload(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error instanceof GeocodioStatusCodeException statusCodeException) {
+            return statusCodeException.statusCode() == 429 || statusCodeException.statusCode() >= 500;
+        }
+        return true;
+    }
+
+    private static class Lane {
+        private final Queue<PendingRequest<?>> queue = new ArrayDeque<>();
+        private int inFlight;
+        private long dispatched;
+        private long totalQueueNanos;
+        private long maxQueueNanos;
+    }
+
+    private static class PendingRequest<T> {
+        private final RequestPriority priority;
+        private final int lookups;
+        private final Function<String, CompletableFuture<T>> send;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final long enqueuedNanos = System.nanoTime();
+        private String admittedWith;
+        private RuntimeException rejection;
+
+        private PendingRequest(RequestPriority priority, int lookups, Function<String, CompletableFuture<T>> send) {
+            this.priority = priority;
+            this.lookups = lookups;
+            this.send = send;
+        }
+    }
+}
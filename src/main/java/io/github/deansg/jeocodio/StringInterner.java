@@ -0,0 +1,89 @@
+package io.github.deansg.jeocodio;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent table of canonical string instances, holding at most {@code maxSize} distinct strings. Unlike
+ * {@link String#intern()}, the table belongs to a single client and is only used for fields that repeat across many
+ * results. Once it is full, strings that aren't in it yet are returned as they are, so a field with unexpectedly high
+ * cardinality can't grow it without bound.
+ */
+class StringInterner {
+    static final int DEFAULT_MAX_SIZE = 10_000;
+    // Object header, the value reference, hash and coder fields of a String, with compressed oops
+    private static final int STRING_SHALLOW_SIZE = 24;
+    private static final int ARRAY_HEADER_SIZE = 16;
+
+    private final ConcurrentHashMap<String, String> strings = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int maxSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    StringInterner() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    StringInterner(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return The canonical instance equal to {@code value}, which is {@code value} itself the first time it is seen or
+     * if the table is full. Null for null.
+     */
+    String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        var existing = strings.get(value);
+        if (existing != null) {
+            return onHit(existing);
+        }
+        if (size.incrementAndGet() > maxSize) {
+            size.decrementAndGet();
+            rejected.increment();
+            return value;
+        }
+        existing = strings.putIfAbsent(value, value);
+        if (existing != null) {
+            size.decrementAndGet();
+            return onHit(existing);
+        }
+        return value;
+    }
+
+    InternedStringStats stats() {
+        return new InternedStringStats(size.get(), maxSize, hits.sum(), rejected.sum(), bytesSaved.sum());
+    }
+
+    private String onHit(String existing) {
+        hits.increment();
+        bytesSaved.add(estimateSize(existing));
+        return existing;
+    }
+
+    /**
+     * @return The approximate heap size of a String and its value array, assuming compact strings
+     */
+    static long estimateSize(String value) {
+        int bytesPerChar = 1;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        return STRING_SHALLOW_SIZE + align((long) ARRAY_HEADER_SIZE + (long) value.length() * bytesPerChar);
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
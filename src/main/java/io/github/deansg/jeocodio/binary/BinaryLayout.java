@@ -0,0 +1,92 @@
+package io.github.deansg.jeocodio.binary;
+
+/**
+ * The layout of version 1 of the binary geocoding results format, shared by {@link GeocodingResultsWriter} and
+ * {@link MappedGeocodingResults}. All numbers are little-endian.
+ * <pre>
+ * Header, 64 bytes
+ *   0  magic "JEOR"
+ *   4  u16 version
+ *   6  u16 reserved
+ *   8  i32 row count
+ *  12  i32 dictionary size, the number of distinct strings
+ *  16  i64 offset of the dictionary's offset index
+ *  24  i64 offset of the dictionary's string data
+ *  32  i64 file length
+ *  40  reserved
+ * Columns, starting at offset 64, one value per row each
+ *   f64 latitude, f64 longitude, f64 accuracy (NaN when missing)
+ *   i32 index of the row's item in the batch response, or -1
+ *   i32 dictionary id of each of the STRING_COLUMNS (-1 when null)
+ *   u8  flags, see the FLAG_ constants
+ * Dictionary offset index, aligned to 8 bytes
+ *   i32[dictionary size + 1] offset of each string in the string data, plus its end
+ * Dictionary string data
+ *   UTF-8 bytes of all strings, back to back
+ * </pre>
+ * Each row is a single {@link io.github.deansg.jeocodio.models.GeocodingResult}. Its fields and warnings aren't stored.
+ */
+final class BinaryLayout {
+    static final int MAGIC = 0x524F454A; // "JEOR" in little-endian
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int ROW_COUNT_OFFSET = 8;
+    static final int DICTIONARY_SIZE_OFFSET = 12;
+    static final int DICTIONARY_INDEX_OFFSET_OFFSET = 16;
+    static final int DICTIONARY_DATA_OFFSET_OFFSET = 24;
+    static final int FILE_LENGTH_OFFSET = 32;
+
+    static final int NULL_STRING = -1;
+    static final byte FLAG_HAS_ADDRESS_COMPONENTS = 1;
+    static final byte FLAG_HAS_LOCATION = 1 << 1;
+
+    // String columns, in the order they are stored
+    static final int QUERY = 0;
+    static final int FORMATTED_ADDRESS = 1;
+    static final int ACCURACY_TYPE = 2;
+    static final int SOURCE = 3;
+    static final int NUMBER = 4;
+    static final int PREDIRECTIONAL = 5;
+    static final int PREFIX = 6;
+    static final int STREET = 7;
+    static final int SUFFIX = 8;
+    static final int POSTDIRECTIONAL = 9;
+    static final int SECONDARY_UNIT = 10;
+    static final int SECONDARY_NUMBER = 11;
+    static final int CITY = 12;
+    static final int COUNTY = 13;
+    static final int STATE = 14;
+    static final int ZIP = 15;
+    static final int COUNTRY = 16;
+    static final int FORMATTED_STREET = 17;
+    static final int STRING_COLUMNS = 18;
+
+    static final long LATITUDE_OFFSET = HEADER_SIZE;
+
+    private BinaryLayout() {
+    }
+
+    static long longitudeOffset(int rowCount) {
+        return LATITUDE_OFFSET + 8L * rowCount;
+    }
+
+    static long accuracyOffset(int rowCount) {
+        return longitudeOffset(rowCount) + 8L * rowCount;
+    }
+
+    static long itemIndexOffset(int rowCount) {
+        return accuracyOffset(rowCount) + 8L * rowCount;
+    }
+
+    static long stringColumnOffset(int rowCount, int column) {
+        return itemIndexOffset(rowCount) + 4L * rowCount * (1 + column);
+    }
+
+    static long flagsOffset(int rowCount) {
+        return stringColumnOffset(rowCount, STRING_COLUMNS);
+    }
+
+    static long columnsEnd(int rowCount) {
+        return flagsOffset(rowCount) + rowCount;
+    }
+}
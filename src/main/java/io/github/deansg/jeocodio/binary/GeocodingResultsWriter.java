@@ -0,0 +1,192 @@
+package io.github.deansg.jeocodio.binary;
+
+import io.github.deansg.jeocodio.models.AddressComponents;
+import io.github.deansg.jeocodio.models.BatchGeocodingResponse;
+import io.github.deansg.jeocodio.models.GeocodingResult;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.github.deansg.jeocodio.binary.BinaryLayout.*;
+
+/**
+ * Writes geocoding results in a compact binary format, which {@link MappedGeocodingResults} can read without parsing.
+ * Locations and accuracies are stored as fixed-width columns, and all strings, such as address components, are
+ * replaced by ids into a dictionary of distinct strings. See {@link BinaryLayout} for the full layout.
+ * <p>
+ * Each result is stored as a row. The {@link GeocodingResult#fields()} and {@link GeocodingResult#warnings()} of the
+ * results aren't stored, and neither are batch items without any results. Files are limited to 2GB.
+ */
+public class GeocodingResultsWriter {
+
+    private GeocodingResultsWriter() {
+    }
+
+    /**
+     * Writes every result of every item of a batch response, along with the item's query and index
+     *
+     * @param response The batch geocoding response
+     * @param path     The file to write. Overwritten if it exists.
+     */
+    public static void write(BatchGeocodingResponse response, Path path) throws IOException {
+        var rows = new ArrayList<Row>();
+        var items = response.results();
+        for (int i = 0; i < items.size(); i++) {
+            var item = items.get(i);
+            if (item.response() == null || item.response().results() == null) {
+                continue;
+            }
+            for (var result : item.response().results()) {
+                rows.add(new Row(i, item.query(), result));
+            }
+        }
+        writeRows(rows, path);
+    }
+
+    /**
+     * Writes results that don't belong to a batch, e.g. those of a reverse geocoding response
+     *
+     * @param results The geocoding results
+     * @param path    The file to write. Overwritten if it exists.
+     */
+    public static void write(List<GeocodingResult> results, Path path) throws IOException {
+        var rows = new ArrayList<Row>(results.size());
+        for (var result : results) {
+            rows.add(new Row(-1, null, result));
+        }
+        writeRows(rows, path);
+    }
+
+    private static void writeRows(List<Row> rows, Path path) throws IOException {
+        int rowCount = rows.size();
+        var dictionary = new Dictionary();
+        var stringIds = new int[STRING_COLUMNS][rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            var strings = strings(rows.get(row));
+            for (int column = 0; column < STRING_COLUMNS; column++) {
+                stringIds[column][row] = dictionary.id(strings[column]);
+            }
+        }
+
+        long dictionaryIndexOffset = (columnsEnd(rowCount) + 7) & ~7L;
+        long dictionaryDataOffset = dictionaryIndexOffset + 4L * (dictionary.size() + 1);
+        long fileLength = dictionaryDataOffset + dictionary.dataLength;
+        if (fileLength > Integer.MAX_VALUE) {
+            throw new IOException("Binary geocoding results files are limited to 2GB");
+        }
+
+        var buffer = ByteBuffer.allocate((int) fileLength).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0, MAGIC);
+        buffer.putShort(4, VERSION);
+        buffer.putInt(ROW_COUNT_OFFSET, rowCount);
+        buffer.putInt(DICTIONARY_SIZE_OFFSET, dictionary.size());
+        buffer.putLong(DICTIONARY_INDEX_OFFSET_OFFSET, dictionaryIndexOffset);
+        buffer.putLong(DICTIONARY_DATA_OFFSET_OFFSET, dictionaryDataOffset);
+        buffer.putLong(FILE_LENGTH_OFFSET, fileLength);
+
+        for (int row = 0; row < rowCount; row++) {
+            var result = rows.get(row).result();
+            var location = result.location();
+            byte flags = 0;
+            double latitude = Double.NaN;
+            double longitude = Double.NaN;
+            if (location != null) {
+                flags |= FLAG_HAS_LOCATION;
+                latitude = orNaN(location.lat());
+                longitude = orNaN(location.lng());
+            }
+            if (result.addressComponents() != null) {
+                flags |= FLAG_HAS_ADDRESS_COMPONENTS;
+            }
+            buffer.putDouble((int) (LATITUDE_OFFSET + 8L * row), latitude);
+            buffer.putDouble((int) (longitudeOffset(rowCount) + 8L * row), longitude);
+            buffer.putDouble((int) (accuracyOffset(rowCount) + 8L * row), orNaN(result.accuracy()));
+            buffer.putInt((int) (itemIndexOffset(rowCount) + 4L * row), rows.get(row).itemIndex());
+            for (int column = 0; column < STRING_COLUMNS; column++) {
+                buffer.putInt((int) (stringColumnOffset(rowCount, column) + 4L * row), stringIds[column][row]);
+            }
+            buffer.put((int) (flagsOffset(rowCount) + row), flags);
+        }
+
+        int dataOffset = 0;
+        for (int id = 0; id < dictionary.size(); id++) {
+            var bytes = dictionary.encoded.get(id);
+            buffer.putInt((int) (dictionaryIndexOffset + 4L * id), dataOffset);
+            buffer.put((int) (dictionaryDataOffset + dataOffset), bytes);
+            dataOffset += bytes.length;
+        }
+        buffer.putInt((int) (dictionaryIndexOffset + 4L * dictionary.size()), dataOffset);
+
+        try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private static String[] strings(Row row) {
+        var strings = new String[STRING_COLUMNS];
+        var result = row.result();
+        strings[QUERY] = row.query();
+        strings[FORMATTED_ADDRESS] = result.formattedAddress();
+        strings[ACCURACY_TYPE] = result.accuracyType();
+        strings[SOURCE] = result.source();
+        AddressComponents components = result.addressComponents();
+        if (components != null) {
+            strings[NUMBER] = components.number();
+            strings[PREDIRECTIONAL] = components.predirectional();
+            strings[PREFIX] = components.prefix();
+            strings[STREET] = components.street();
+            strings[SUFFIX] = components.suffix();
+            strings[POSTDIRECTIONAL] = components.postdirectional();
+            strings[SECONDARY_UNIT] = components.secondaryunit();
+            strings[SECONDARY_NUMBER] = components.secondarynumber();
+            strings[CITY] = components.city();
+            strings[COUNTY] = components.county();
+            strings[STATE] = components.state();
+            strings[ZIP] = components.zip();
+            strings[COUNTRY] = components.country();
+            strings[FORMATTED_STREET] = components.formattedStreet();
+        }
+        return strings;
+    }
+
+    private static double orNaN(Double value) {
+        return value == null ? Double.NaN : value;
+    }
+
+    private record Row(int itemIndex, String query, GeocodingResult result) {
+    }
+
+    private static class Dictionary {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<byte[]> encoded = new ArrayList<>();
+        private long dataLength;
+
+        private int id(String value) {
+            if (value == null) {
+                return NULL_STRING;
+            }
+            return ids.computeIfAbsent(value, key -> {
+                var bytes = key.getBytes(StandardCharsets.UTF_8);
+                encoded.add(bytes);
+                dataLength += bytes.length;
+                return encoded.size() - 1;
+            });
+        }
+
+        private int size() {
+            return encoded.size();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package io.github.deansg.jeocodio.binary;
+
+import io.github.deansg.jeocodio.models.AddressComponents;
+import io.github.deansg.jeocodio.models.GeocodingResult;
+import io.github.deansg.jeocodio.models.Location;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static io.github.deansg.jeocodio.binary.BinaryLayout.*;
+
+/**
+ * Random access by row to a file written by {@link GeocodingResultsWriter}. The file is memory-mapped, so opening it
+ * doesn't read or parse anything, and the numeric columns are read straight from the mapping. Strings are decoded from
+ * the dictionary on first use and then shared by all rows that contain them.
+ * <p>
+ * Instances are safe for use by multiple threads. The mapping stays valid until it is garbage collected, even after
+ * {@link #close()}, since the JDK has no supported way to unmap a file.
+ */
+public class MappedGeocodingResults implements AutoCloseable {
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int rowCount;
+    private final long dictionaryIndexOffset;
+    private final long dictionaryDataOffset;
+    private final String[] strings;
+
+    private MappedGeocodingResults(FileChannel channel, MappedByteBuffer buffer) throws IOException {
+        this.channel = channel;
+        this.buffer = buffer;
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a binary geocoding results file");
+        }
+        if (buffer.getShort(4) != VERSION) {
+            throw new IOException(String.format("Unsupported binary geocoding results version %s", buffer.getShort(4)));
+        }
+        if (buffer.getLong(FILE_LENGTH_OFFSET) != buffer.capacity()) {
+            throw new IOException("Binary geocoding results file is truncated");
+        }
+        this.rowCount = buffer.getInt(ROW_COUNT_OFFSET);
+        this.dictionaryIndexOffset = buffer.getLong(DICTIONARY_INDEX_OFFSET_OFFSET);
+        this.dictionaryDataOffset = buffer.getLong(DICTIONARY_DATA_OFFSET_OFFSET);
+        int dictionarySize = buffer.getInt(DICTIONARY_SIZE_OFFSET);
+        validateSections(buffer.capacity(), dictionarySize);
+        this.strings = new String[dictionarySize];
+    }
+
+    /**
+     * Checks that the sections the header points to fit in the file and in each other, so that a damaged file fails
+     * here rather than with an unchecked exception on some later read
+     */
+    private void validateSections(long fileLength, int dictionarySize) throws IOException {
+        if (rowCount < 0 || dictionarySize < 0
+                || columnsEnd(rowCount) > dictionaryIndexOffset
+                || dictionaryIndexOffset + 4L * (dictionarySize + 1L) != dictionaryDataOffset
+                || dictionaryDataOffset > fileLength) {
+            throw new IOException("Binary geocoding results file is corrupt");
+        }
+        int dataLength = buffer.getInt((int) (dictionaryIndexOffset + 4L * dictionarySize));
+        if (dataLength < 0 || dictionaryDataOffset + dataLength > fileLength) {
+            throw new IOException("Binary geocoding results file is corrupt");
+        }
+    }
+
+    /**
+     * Memory-maps a file written by {@link GeocodingResultsWriter}
+     *
+     * @param path The file
+     * @throws IOException if the file can't be read, or isn't a supported binary geocoding results file
+     */
+    public static MappedGeocodingResults open(Path path) throws IOException {
+        var channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Binary geocoding results files are limited to 2GB");
+            }
+            return new MappedGeocodingResults(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * @return The number of rows, one per geocoding result
+     */
+    public int size() {
+        return rowCount;
+    }
+
+    /**
+     * @return The latitude of the row's location, or NaN if it has none
+     */
+    public double latitude(int row) {
+        return buffer.getDouble(offset(LATITUDE_OFFSET, 8, row));
+    }
+
+    /**
+     * @return The longitude of the row's location, or NaN if it has none
+     */
+    public double longitude(int row) {
+        return buffer.getDouble(offset(longitudeOffset(rowCount), 8, row));
+    }
+
+    /**
+     * @return The accuracy of the row's result, or NaN if it has none
+     */
+    public double accuracy(int row) {
+        return buffer.getDouble(offset(accuracyOffset(rowCount), 8, row));
+    }
+
+    /**
+     * @return The index of the batch item the row's result belongs to, or -1 if it wasn't written from a batch
+     */
+    public int batchItemIndex(int row) {
+        return buffer.getInt(offset(itemIndexOffset(rowCount), 4, row));
+    }
+
+    /**
+     * @return The query of the batch item the row's result belongs to, or null if it wasn't written from a batch
+     */
+    public String query(int row) {
+        return string(row, QUERY);
+    }
+
+    /**
+     * @return The row's result, without {@link GeocodingResult#fields()} and {@link GeocodingResult#warnings()}
+     */
+    public GeocodingResult result(int row) {
+        byte flags = buffer.get(offset(flagsOffset(rowCount), 1, row));
+        AddressComponents addressComponents = null;
+        if ((flags & FLAG_HAS_ADDRESS_COMPONENTS) != 0) {
+            addressComponents = new AddressComponents(
+                    string(row, NUMBER),
+                    string(row, PREDIRECTIONAL),
+                    string(row, PREFIX),
+                    string(row, STREET),
+                    string(row, SUFFIX),
+                    string(row, POSTDIRECTIONAL),
+                    string(row, SECONDARY_UNIT),
+                    string(row, SECONDARY_NUMBER),
+                    string(row, CITY),
+                    string(row, COUNTY),
+                    string(row, STATE),
+                    string(row, ZIP),
+                    string(row, COUNTRY),
+                    string(row, FORMATTED_STREET));
+        }
+        Location location = null;
+        if ((flags & FLAG_HAS_LOCATION) != 0) {
+            location = new Location(boxed(latitude(row)), boxed(longitude(row)));
+        }
+        return new GeocodingResult(addressComponents, string(row, FORMATTED_ADDRESS), location, boxed(accuracy(row)),
+                string(row, ACCURACY_TYPE), string(row, SOURCE), null, null);
+    }
+
+    private String string(int row, int column) {
+        int id = buffer.getInt(offset(stringColumnOffset(rowCount, column), 4, row));
+        if (id == NULL_STRING) {
+            return null;
+        }
+        // Racing threads may both decode the same string, which is harmless
+        var value = strings[id];
+        if (value == null) {
+            int start = buffer.getInt((int) (dictionaryIndexOffset + 4L * id));
+            int end = buffer.getInt((int) (dictionaryIndexOffset + 4L * (id + 1)));
+            var bytes = new byte[end - start];
+            buffer.get((int) (dictionaryDataOffset + start), bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            strings[id] = value;
+        }
+        return value;
+    }
+
+    private int offset(long columnOffset, int width, int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException(String.format("Row %s is out of bounds for %s rows", row, rowCount));
+        }
+        return (int) (columnOffset + (long) width * row);
+    }
+
+    private static Double boxed(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+}
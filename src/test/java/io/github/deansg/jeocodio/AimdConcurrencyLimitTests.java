@@ -0,0 +1,115 @@
+package io.github.deansg.jeocodio;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AimdConcurrencyLimitTests {
+    private static final long BASELINE_RTT_NANOS = 10_000_000;
+
+    @Test
+    public void testIncreasesWhileLatencyIsFlat() {
+        var limit = new AimdConcurrencyLimit(10, 1, 100, 0.5, 2.0);
+
+        // Roughly one RTT's worth of samples
+        for (int i = 0; i < 12; i++) {
+            limit.onSample(BASELINE_RTT_NANOS, 10, false);
+        }
+
+        assertEquals(11, limit.current());
+    }
+
+    @Test
+    public void testDoesNotIncreaseWhenUnderused() {
+        var limit = new AimdConcurrencyLimit(10, 1, 100, 0.5, 2.0);
+
+        limit.onSample(BASELINE_RTT_NANOS, 2, false);
+
+        assertEquals(10, limit.current());
+    }
+
+    @Test
+    public void testDecreasesWhenLatencyRises() {
+        var limit = new AimdConcurrencyLimit(10, 1, 100, 0.5, 1.5);
+        limit.onSample(BASELINE_RTT_NANOS, 10, false);
+
+        for (int i = 0; i < 3; i++) {
+            limit.onSample(3 * BASELINE_RTT_NANOS, 10, false);
+        }
+
+        assertTrue(limit.current() < 10);
+    }
+
+    @Test
+    public void testToleratesJitter() {
+        var limit = new AimdConcurrencyLimit(10, 1, 100, 0.5, 1.5);
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(i % 2 == 0 ? BASELINE_RTT_NANOS * 3 / 4 : BASELINE_RTT_NANOS * 5 / 4, 100, false);
+        }
+
+        assertEquals(14, limit.current());
+    }
+
+    @Test
+    public void testDecreasesOnOverload() {
+        var limit = new AimdConcurrencyLimit(10, 1, 100, 0.5, 2.0);
+
+        limit.onSample(BASELINE_RTT_NANOS, 10, true);
+
+        assertEquals(5, limit.current());
+    }
+
+    @Test
+    public void testDecreasesOncePerRTT() {
+        var limit = new AimdConcurrencyLimit(16, 1, 100, 0.5, 2.0);
+
+        limit.onSample(Long.MAX_VALUE / 4, 10, true);
+        limit.onSample(Long.MAX_VALUE / 4, 10, true);
+
+        assertEquals(8, limit.current());
+    }
+
+    @Test
+    public void testFastErrorsDecreaseOncePerSmoothedRTT() {
+        var limit = new AimdConcurrencyLimit(16, 1, 100, 0.5, 2.0);
+        limit.onSample(Long.MAX_VALUE / 4, 1, false);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(1, 10, true);
+        }
+
+        assertEquals(8, limit.current());
+    }
+
+    @Test
+    public void testStaysWithinBounds() {
+        var limit = new AimdConcurrencyLimit(2, 2, 3, 0.5, 2.0);
+
+        limit.onSample(0, 3, true);
+        assertEquals(2, limit.current());
+        for (int i = 0; i < 5; i++) {
+            limit.onSample(0, 3, false);
+        }
+        assertEquals(3, limit.current());
+    }
+
+    @Test
+    public void testBaselineFollowsSlowerAPI() {
+        var limit = new AimdConcurrencyLimit(2, 2, 100, 0.5, 1.5);
+        limit.onSample(BASELINE_RTT_NANOS, 10, false);
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(3 * BASELINE_RTT_NANOS, 10, false);
+        }
+
+        assertTrue(limit.current() > 2);
+    }
+
+    @Test
+    public void testInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new AimdConcurrencyLimit(10, 0, 100, 0.5, 2.0));
+        assertThrows(IllegalArgumentException.class, () -> new AimdConcurrencyLimit(10, 1, 5, 0.5, 2.0));
+        assertThrows(IllegalArgumentException.class, () -> new AimdConcurrencyLimit(10, 1, 100, 1, 2.0));
+    }
+}
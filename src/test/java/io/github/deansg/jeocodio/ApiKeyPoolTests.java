@@ -0,0 +1,239 @@
+package io.github.deansg.jeocodio;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static io.github.deansg.jeocodio.RequestPriority.BULK;
+import static io.github.deansg.jeocodio.RequestPriority.INTERACTIVE;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ApiKeyPoolTests {
+    private static final Instant START = Instant.parse("2024-01-01T10:00:00Z");
+    private static final String DAILY_MAXIMUM_BODY =
+            "{\"error\":\"You can't make this request as it is above your daily maximum.\"}";
+    private MutableClock clock;
+
+    @BeforeEach
+    public void setUp() {
+        clock = new MutableClock(START);
+    }
+
+    @Test
+    public void testRoundRobinWhenUnlimited() {
+        var pool = new ApiKeyPool(List.of(new ApiKeyQuota("a"), new ApiKeyQuota("b"), new ApiKeyQuota("c")), clock);
+
+        var keys = List.of(pool.acquire(INTERACTIVE, 1), pool.acquire(INTERACTIVE, 1), pool.acquire(INTERACTIVE, 1), pool.acquire(INTERACTIVE, 1));
+
+        assertEquals(List.of("a", "b", "c", "a"), keys);
+    }
+
+    @Test
+    public void testPrefersLeastUsedKey() {
+        var pool = new ApiKeyPool(List.of(new ApiKeyQuota("small", null, 100), new ApiKeyQuota("large", null, 1000)),
+                clock);
+
+        assertEquals("small", pool.acquire(INTERACTIVE, 1));
+        assertEquals("large", pool.acquire(INTERACTIVE, 50));
+        // small is at 1% of its quota, large at 5%
+        assertEquals("small", pool.acquire(INTERACTIVE, 1));
+        assertEquals("small", pool.acquire(INTERACTIVE, 1));
+    }
+
+    @Test
+    public void testRequestsPerMinute() {
+        var pool = new ApiKeyPool(List.of(new ApiKeyQuota("a", 2, null), new ApiKeyQuota("b", 1, null)), clock);
+
+        pool.acquire(INTERACTIVE, 1);
+        pool.acquire(INTERACTIVE, 1);
+        pool.acquire(INTERACTIVE, 1);
+
+        assertNull(pool.acquire(INTERACTIVE, 1));
+        clock.advance(Duration.ofSeconds(15));
+        assertEquals(Duration.ofSeconds(45), pool.retryDelay());
+        clock.advance(Duration.ofSeconds(45));
+        assertNotNull(pool.acquire(INTERACTIVE, 1));
+    }
+
+    @Test
+    public void testBulkLeavesInteractiveShareOfRequestsPerMinute() {
+        var pool = new ApiKeyPool(List.of(new ApiKeyQuota("a", 20, null)), clock);
+
+        for (int i = 0; i < 18; i++) {
+            assertEquals("a", pool.acquire(BULK, 1));
+        }
+
+        assertNull(pool.acquire(BULK, 1));
+        assertEquals("a", pool.acquire(INTERACTIVE, 1));
+        assertEquals("a", pool.acquire(INTERACTIVE, 1));
+        assertNull(pool.acquire(INTERACTIVE, 1));
+    }
+
+    @Test
+    public void testBulkLeavesInteractiveShareOfDailyLookups() {
+        var pool = new ApiKeyPool(List.of(new ApiKeyQuota("a", null, 100)), clock);
+
+        pool.acquire(BULK, 85);
+
+        assertThrows(GeocodioQuotaExceededException.class, () -> pool.acquire(BULK, 10));
+        assertEquals("a", pool.acquire(BULK, 5));
+        assertEquals("a", pool.acquire(INTERACTIVE, 10));
+    }
+
+    @Test
+    public void testDailyLookupsFailEvenWhenOtherKeysWait() {
+        var pool = new ApiKeyPool(List.of(new ApiKeyQuota("a", 1, 10), new ApiKeyQuota("b", 1, 10)), clock);
+        pool.acquire(INTERACTIVE, 1);
+        pool.acquire(INTERACTIVE, 1);
+
+        assertNull(pool.acquire(INTERACTIVE, 5));
+        assertThrows(GeocodioQuotaExceededException.class, () -> pool.acquire(INTERACTIVE, 20));
+    }
+
+    @Test
+    public void testDailyLookups() {
+        var pool = new ApiKeyPool(List.of(new ApiKeyQuota("a", null, 100)), clock);
+
+        pool.acquire(INTERACTIVE, 60);
+
+        assertThrows(GeocodioQuotaExceededException.class, () -> pool.acquire(INTERACTIVE, 50));
+        assertEquals("a", pool.acquire(INTERACTIVE, 40));
+        clock.advance(Duration.ofDays(1));
+        assertEquals("a", pool.acquire(INTERACTIVE, 100));
+    }
+
+    @Test
+    public void testQuotaErrorDisablesKeyUntilMidnight() {
+        var pool = new ApiKeyPool(List.of(new ApiKeyQuota("a"), new ApiKeyQuota("b")), clock);
+
+        pool.onResponse("a", 403, DAILY_MAXIMUM_BODY);
+
+        assertEquals("b", pool.acquire(INTERACTIVE, 1));
+        assertEquals("b", pool.acquire(INTERACTIVE, 1));
+        var usage = pool.usage().get(0);
+        assertEquals(1, usage.quotaErrors());
+        assertEquals(Instant.parse("2024-01-02T00:00:00Z"), usage.disabledUntil());
+        clock.advance(Duration.ofHours(14));
+        assertEquals("a", pool.acquire(INTERACTIVE, 1));
+        assertNull(pool.usage().get(0).disabledUntil());
+    }
+
+    @Test
+    public void testOtherForbiddenErrorsDontDisableKey() {
+        var pool = new ApiKeyPool(List.of(new ApiKeyQuota("a"), new ApiKeyQuota("b")), clock);
+
+        pool.onResponse("a", 403, "{\"error\":\"Invalid API key\"}");
+
+        assertEquals("a", pool.acquire(INTERACTIVE, 1));
+        assertEquals(0, pool.usage().get(0).quotaErrors());
+        assertNull(pool.usage().get(0).disabledUntil());
+    }
+
+    @Test
+    public void testDisabledKeysNotUsedAsLastResort() {
+        var pool = new ApiKeyPool(List.of(new ApiKeyQuota("a"), new ApiKeyQuota("b", null, 1)), clock);
+
+        pool.onResponse("a", 403, DAILY_MAXIMUM_BODY);
+
+        assertEquals("b", pool.acquire(INTERACTIVE, 1));
+        assertThrows(GeocodioQuotaExceededException.class, () -> pool.acquire(INTERACTIVE, 1));
+    }
+
+    @Test
+    public void testSingleKeyStillUsedAfterDailyMaximum() {
+        var pool = new ApiKeyPool(List.of(new ApiKeyQuota("a")), clock);
+
+        pool.onResponse("a", 403, DAILY_MAXIMUM_BODY);
+
+        assertEquals("a", pool.acquire(INTERACTIVE, 1));
+        assertNotNull(pool.usage().get(0).disabledUntil());
+    }
+
+    @Test
+    public void testRateLimitErrorDeprioritizesKey() {
+        var pool = new ApiKeyPool(List.of(new ApiKeyQuota("a"), new ApiKeyQuota("b")), clock);
+
+        pool.onResponse("a", 429, null);
+
+        assertEquals("b", pool.acquire(INTERACTIVE, 1));
+        assertEquals("b", pool.acquire(INTERACTIVE, 1));
+        pool.onResponse("b", 429, null);
+        assertEquals("a", pool.acquire(INTERACTIVE, 1));
+        assertEquals(Instant.parse("2024-01-01T10:01:00Z"), pool.usage().get(0).rateLimitedUntil());
+        assertEquals(1, pool.usage().get(0).rateLimitErrors());
+    }
+
+    @Test
+    public void testSingleKeyStillUsedWhenRateLimited() {
+        var pool = new ApiKeyPool(List.of(new ApiKeyQuota("a")), clock);
+
+        pool.onResponse("a", 429, null);
+
+        assertEquals("a", pool.acquire(INTERACTIVE, 1));
+    }
+
+    @Test
+    public void testUsage() {
+        var pool = new ApiKeyPool(List.of(new ApiKeyQuota("a"), new ApiKeyQuota("b")), clock);
+        pool.acquire(INTERACTIVE, 10);
+        pool.acquire(INTERACTIVE, 1);
+        pool.acquire(INTERACTIVE, 5);
+        clock.advance(Duration.ofDays(1));
+        pool.acquire(INTERACTIVE, 2);
+
+        var usage = pool.usage();
+
+        assertEquals(new ApiKeyUsage(0, "****", 2, 15, 0, 0, 0, null, null), usage.get(0));
+        assertEquals(new ApiKeyUsage(1, "****", 2, 3, 2, 0, 0, null, null), usage.get(1));
+    }
+
+    @Test
+    public void testMasksApiKeys() {
+        var quota = new ApiKeyQuota("0123456789abcdef", 60, null);
+        var pool = new ApiKeyPool(List.of(quota), clock);
+
+        assertEquals("****cdef", pool.usage().get(0).maskedApiKey());
+        assertFalse(pool.usage().get(0).toString().contains("0123456789"));
+        assertFalse(quota.toString().contains("0123456789"));
+        assertEquals("****", new ApiKeyQuota("short").maskedApiKey());
+    }
+
+    @Test
+    public void testInvalidKeys() {
+        assertThrows(IllegalArgumentException.class, () -> new ApiKeyPool(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> new ApiKeyPool(List.of(new ApiKeyQuota("a"), new ApiKeyQuota("a"))));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        private void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
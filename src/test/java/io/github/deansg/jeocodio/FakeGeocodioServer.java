@@ -0,0 +1,369 @@
+package io.github.deansg.jeocodio;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An in-process fake of the Geocodio API, built on the JDK's {@link HttpServer}. It serves the geocode, batch geocode
+ * and reverse geocode endpoints from the JSON fixtures under src/test/resources, and can inject latency, 429s and 5xx
+ * errors, simulate a server that can only handle a few requests at a time, and enforce daily quotas per API key. Used
+ * for end-to-end and load tests, where mocking the {@link java.net.http.HttpClient} is not enough.
+ */
+public class FakeGeocodioServer implements AutoCloseable {
+    public static final String API_PATH = "/v1.7/";
+    private static final Gson GSON = new Gson();
+    private static final JsonElement GEOCODING_FIXTURE = readFixture("sample_geocoding_response.json");
+    private static final JsonElement REVERSE_GEOCODING_FIXTURE = readFixture("sample_reverse_geocoding_response.json");
+
+    static {
+        // Headers and body are written separately, so without this Nagle's algorithm adds ~40ms to every response
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final Set<HttpExchange> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile LatencyDistribution latency = LatencyDistribution.none();
+    private volatile double tooManyRequestsRate;
+    private volatile double serverErrorRate;
+    private volatile boolean gzip = true;
+    private volatile Semaphore capacity;
+    private final Map<String, Integer> dailyQuotas = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> lookupsByApiKey = new ConcurrentHashMap<>();
+
+    private FakeGeocodioServer() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            var thread = new Thread(runnable, "fake-geocodio-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server.setExecutor(this.executor);
+        this.server.createContext(API_PATH, this::handle);
+    }
+
+    /**
+     * Starts a new server on an ephemeral loopback port
+     */
+    public static FakeGeocodioServer start() throws IOException {
+        var fakeServer = new FakeGeocodioServer();
+        fakeServer.server.start();
+        return fakeServer;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return The base URL to pass to {@link GeocodioClientOptions#BaseURL()}
+     */
+    public String baseURL() {
+        return String.format("http://%s:%d%s", server.getAddress().getHostString(), server.getAddress().getPort(), API_PATH);
+    }
+
+    //region Configuration
+
+    public FakeGeocodioServer latency(LatencyDistribution latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /**
+     * @param rate The fraction of requests, between 0 and 1, that are answered with 429 Too Many Requests
+     */
+    public FakeGeocodioServer tooManyRequestsRate(double rate) {
+        this.tooManyRequestsRate = rate;
+        return this;
+    }
+
+    /**
+     * @param rate The fraction of requests, between 0 and 1, that are answered with 500 Internal Server Error
+     */
+    public FakeGeocodioServer serverErrorRate(double rate) {
+        this.serverErrorRate = rate;
+        return this;
+    }
+
+    /**
+     * @param gzip Whether to gzip responses for requests that send "Accept-Encoding: gzip". Default is true.
+     */
+    public FakeGeocodioServer gzip(boolean gzip) {
+        this.gzip = gzip;
+        return this;
+    }
+
+    /**
+     * @param capacity How many requests the server handles at the same time. Further requests wait for a free slot,
+     *                 so their latency grows with the client's concurrency. Default is unlimited.
+     */
+    public FakeGeocodioServer capacity(int capacity) {
+        this.capacity = new Semaphore(capacity);
+        return this;
+    }
+
+    /**
+     * @param apiKey  The API key
+     * @param lookups How many lookups to allow the key before answering its requests with 403 Forbidden
+     */
+    public FakeGeocodioServer dailyQuota(String apiKey, int lookups) {
+        dailyQuotas.put(apiKey, lookups);
+        return this;
+    }
+
+    //endregion
+
+    //region Stats
+
+    public int requestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return The number of lookups that were answered within the API key's quota
+     */
+    public int lookupCount(String apiKey) {
+        var lookups = lookupsByApiKey.get(apiKey);
+        return lookups == null ? 0 : lookups.get();
+    }
+
+    /**
+     * @return The highest number of requests that were being handled at the same time
+     */
+    public int maxInFlight() {
+        return maxInFlight.get();
+    }
+
+    //endregion
+
+    //region Synthetic data
+
+    /**
+     * @return {@code count} distinct, made up addresses to use as batch geocoding queries
+     */
+    public static List<String> syntheticQueries(int count) {
+        var queries = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            queries.add(String.format("%d N Highland St, Arlington VA", i + 1));
+        }
+        return queries;
+    }
+
+    /**
+     * @return A batch geocoding response body with one fixture geocoding response per query
+     */
+    public static String syntheticBatchResponse(List<String> queries) {
+        var results = new JsonArray(queries.size());
+        for (var query : queries) {
+            var item = new JsonObject();
+            item.addProperty("query", query);
+            item.add("response", GEOCODING_FIXTURE);
+            results.add(item);
+        }
+        var response = new JsonObject();
+        response.add("results", results);
+        return GSON.toJson(response);
+    }
+
+    //endregion
+
+    //region Request handling
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        inFlight.add(exchange);
+        maxInFlight.accumulateAndGet(inFlight.size(), Math::max);
+        var capacity = this.capacity;
+        try (exchange) {
+            if (capacity != null) {
+                capacity.acquireUninterruptibly();
+            }
+            try {
+                sleep(latency.sample(ThreadLocalRandom.current()));
+            } finally {
+                if (capacity != null) {
+                    capacity.release();
+                }
+            }
+            var query = parseQuery(exchange.getRequestURI().getRawQuery());
+            var apiKey = query.get("api_key");
+            if (apiKey == null || apiKey.isEmpty()) {
+                respond(exchange, 403, "{\"error\":\"Invalid API key\"}");
+                return;
+            }
+            var roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < tooManyRequestsRate) {
+                respond(exchange, 429, "{\"error\":\"You've exceeded the rate limit\"}");
+                return;
+            }
+            if (roll < tooManyRequestsRate + serverErrorRate) {
+                respond(exchange, 500, "{\"error\":\"Internal server error\"}");
+                return;
+            }
+            route(exchange, apiKey);
+        } finally {
+            leave(exchange);
+        }
+    }
+
+    private void route(HttpExchange exchange, String apiKey) throws IOException {
+        var endpoint = exchange.getRequestURI().getPath().substring(API_PATH.length());
+        var method = exchange.getRequestMethod();
+        if (endpoint.equals("geocode") && method.equals("GET")) {
+            respondWithinQuota(exchange, apiKey, 1, () -> GSON.toJson(GEOCODING_FIXTURE));
+        } else if (endpoint.equals("geocode") && method.equals("POST")) {
+            var queries = readQueries(exchange);
+            respondWithinQuota(exchange, apiKey, queries.size(), () -> syntheticBatchResponse(queries));
+        } else if (endpoint.equals("reverse") && method.equals("GET")) {
+            respondWithinQuota(exchange, apiKey, 1, () -> GSON.toJson(REVERSE_GEOCODING_FIXTURE));
+        } else {
+            respond(exchange, 404, "{\"error\":\"Not found\"}");
+        }
+    }
+
+    private void respondWithinQuota(HttpExchange exchange, String apiKey, int lookups, Supplier<String> json)
+            throws IOException {
+        var keyLookups = lookupsByApiKey.computeIfAbsent(apiKey, key -> new AtomicInteger());
+        int quota = dailyQuotas.getOrDefault(apiKey, Integer.MAX_VALUE);
+        int usedBefore = keyLookups.getAndUpdate(used -> (long) used + lookups <= quota ? used + lookups : used);
+        if ((long) usedBefore + lookups > quota) {
+            respond(exchange, 403, "{\"error\":\"You can't make this request as it is above your daily maximum.\"}");
+            return;
+        }
+        respond(exchange, 200, json.get());
+    }
+
+    private List<String> readQueries(HttpExchange exchange) throws IOException {
+        try (var reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+            var queries = new ArrayList<String>();
+            for (var element : JsonParser.parseReader(reader).getAsJsonArray()) {
+                queries.add(element.getAsString());
+            }
+            return queries;
+        }
+    }
+
+    private void respond(HttpExchange exchange, int statusCode, String json) throws IOException {
+        var body = json.getBytes(StandardCharsets.UTF_8);
+        var acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (gzip && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            body = gzip(body);
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        // Stop counting the request before the client can see the response and send its next one
+        leave(exchange);
+        exchange.sendResponseHeaders(statusCode, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private void leave(HttpExchange exchange) {
+        inFlight.remove(exchange);
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        var outputStream = new ByteArrayOutputStream(body.length / 4);
+        try (var gzipStream = new GZIPOutputStream(outputStream)) {
+            gzipStream.write(body);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        var query = new HashMap<String, String>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (var pair : rawQuery.split("&")) {
+            var separator = pair.indexOf('=');
+            if (separator > 0) {
+                query.put(pair.substring(0, separator),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    private static void sleep(Duration duration) {
+        if (duration.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(duration.toMillis(), duration.toNanosPart() % 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static JsonElement readFixture(String resourceName) {
+        try {
+            return JsonParser.parseString(new String(TestUtils.readResource(resourceName), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read fixture " + resourceName, e);
+        }
+    }
+
+    //endregion
+
+    /**
+     * The distribution of the artificial delay the server adds before handling each request
+     */
+    @FunctionalInterface
+    public interface LatencyDistribution {
+        Duration sample(Random random);
+
+        static LatencyDistribution none() {
+            return random -> Duration.ZERO;
+        }
+
+        static LatencyDistribution fixed(Duration latency) {
+            return random -> latency;
+        }
+
+        static LatencyDistribution uniform(Duration min, Duration max) {
+            return random -> Duration.ofNanos(min.toNanos() + (long) (random.nextDouble() * (max.toNanos() - min.toNanos())));
+        }
+
+        /**
+         * A long-tailed distribution, where most requests take about {@code median} and a few take much longer.
+         *
+         * @param sigma The standard deviation of the underlying normal distribution. 0.5 gives a p99 of roughly 3.2
+         *              times the median.
+         */
+        static LatencyDistribution logNormal(Duration median, double sigma) {
+            return random -> Duration.ofNanos((long) (median.toNanos() * Math.exp(sigma * random.nextGaussian())));
+        }
+    }
+}
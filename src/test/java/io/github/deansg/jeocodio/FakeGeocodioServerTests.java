@@ -0,0 +1,328 @@
+package io.github.deansg.jeocodio;
+
+import io.github.deansg.jeocodio.models.BatchGeocodingRequestBuilder;
+import io.github.deansg.jeocodio.models.GeocodingRequestBuilder;
+import io.github.deansg.jeocodio.models.ReverseGeocodingRequestBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end tests of {@link GeocodioClient} against {@link FakeGeocodioServer}
+ */
+public class FakeGeocodioServerTests {
+    private FakeGeocodioServer server;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = FakeGeocodioServer.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testGeocodeE2E() throws ExecutionException, InterruptedException {
+        var response = newClient(true).geocodeAsync("1109 N Highland St. Arlington VA").get();
+
+        assertEquals(1, response.results().size());
+        assertEquals("1109 N Highland St, Arlington, VA 22201", response.results().get(0).formattedAddress());
+        assertEquals(1, server.requestCount());
+    }
+
+    @Test
+    public void testGeocodeWithoutGZIPE2E() throws ExecutionException, InterruptedException {
+        server.gzip(false);
+
+        var response = newClient(true).geocodeAsync("1109 N Highland St. Arlington VA").get();
+
+        assertEquals("rooftop", response.results().get(0).accuracyType());
+    }
+
+    @Test
+    public void testLargeBatchGeocodeE2E() throws ExecutionException, InterruptedException {
+        var queries = FakeGeocodioServer.syntheticQueries(5000);
+        var request = BatchGeocodingRequestBuilder.builder().qs(queries).build();
+
+        var response = newClient(true).batchGeocodeAsync(request).get();
+
+        assertEquals(queries.size(), response.results().size());
+        assertEquals(queries.get(4999), response.results().get(4999).query());
+        assertEquals(1, response.results().get(4999).response().results().size());
+    }
+
+    @Test
+    public void testReverseGeocodeE2E() throws ExecutionException, InterruptedException {
+        var request = ReverseGeocodingRequestBuilder.builder().latitude(38.9002898).longitude(-76.9990361).build();
+
+        var response = newClient(false).reverseGeocodeAsync(request).get();
+
+        assertEquals(2, response.results().size());
+        assertEquals("City of Washington", response.results().get(1).source());
+    }
+
+    @Test
+    public void testTooManyRequestsInjection() {
+        server.tooManyRequestsRate(1);
+
+        var future = newClient(true).geocodeAsync("1109 N Highland St. Arlington VA");
+
+        var exception = assertThrows(ExecutionException.class, future::get);
+        var innerException = assertInstanceOf(GeocodioStatusCodeException.class, exception.getCause());
+        assertEquals(429, innerException.statusCode());
+    }
+
+    @Test
+    public void testServerErrorInjection() {
+        server.serverErrorRate(1);
+
+        var future = newClient(false).geocodeAsync("1109 N Highland St. Arlington VA");
+
+        var exception = assertThrows(ExecutionException.class, future::get);
+        var innerException = assertInstanceOf(GeocodioStatusCodeException.class, exception.getCause());
+        assertEquals(500, innerException.statusCode());
+    }
+
+    @Test
+    public void testMissingApiKey() {
+        var client = newClient(List.of(new ApiKeyQuota("")), UnaryOperator.identity());
+
+        for (int i = 0; i < 2; i++) {
+            var exception = assertThrows(ExecutionException.class, () -> client.geocodeAsync("").get());
+            var innerException = assertInstanceOf(GeocodioStatusCodeException.class, exception.getCause());
+            assertEquals(403, innerException.statusCode());
+        }
+        assertEquals(2, server.requestCount());
+        assertEquals(0, client.apiKeyUsage().get(0).quotaErrors());
+    }
+
+    @Test
+    public void testLoadDriver() throws InterruptedException {
+        server.latency(FakeGeocodioServer.LatencyDistribution.fixed(Duration.ofMillis(5)));
+        var client = newClient(true);
+
+        var report = new LoadDriver(8, 200).run(() -> client.geocodeAsync("1109 N Highland St. Arlington VA"));
+
+        assertEquals(0, report.errors());
+        // The HttpClient may transparently retry a GET whose pooled connection was closed, so this isn't exact
+        assertTrue(server.requestCount() >= 200);
+        assertTrue(server.maxInFlight() <= 8);
+        assertTrue(report.p50().toMillis() >= 5);
+        assertTrue(report.p99().compareTo(report.p50()) >= 0);
+    }
+
+    @Test
+    public void testLoadDriverWithSynchronousFailures() throws InterruptedException {
+        var report = new LoadDriver(4, 50_000).run(() -> {
+            throw new IllegalStateException("Fails before returning a future");
+        });
+
+        assertEquals(50_000, report.errors());
+    }
+
+    @Test
+    public void testPriorityLanesE2E() {
+        server.latency(FakeGeocodioServer.LatencyDistribution.fixed(Duration.ofMillis(10)));
+        var client = newClient(options -> options.maxConcurrentRequests(4).reservedInteractiveRequests(2));
+        var bulkRequest = BatchGeocodingRequestBuilder.builder().qs(FakeGeocodioServer.syntheticQueries(10)).build();
+        var futures = new ArrayList<CompletableFuture<?>>();
+
+        for (int i = 0; i < 40; i++) {
+            futures.add(client.batchGeocodeAsync(bulkRequest));
+        }
+        for (int i = 0; i < 4; i++) {
+            futures.add(client.geocodeAsync("1109 N Highland St. Arlington VA"));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        var interactiveStats = client.laneStats(RequestPriority.INTERACTIVE);
+        var bulkStats = client.laneStats(RequestPriority.BULK);
+        assertEquals(4, interactiveStats.dispatched());
+        assertEquals(40, bulkStats.dispatched());
+        assertTrue(server.maxInFlight() <= 4);
+        assertTrue(interactiveStats.maxQueueTime().compareTo(bulkStats.maxQueueTime()) < 0);
+    }
+
+    @Test
+    public void testAdaptiveConcurrencyFollowsLatency() throws InterruptedException {
+        server.latency(FakeGeocodioServer.LatencyDistribution.fixed(Duration.ofMillis(10)));
+        var client = newAdaptiveClient(64);
+
+        // Establishes the baseline RTT. How far the limit grows meanwhile depends on loopback jitter, so it's only
+        // asserted on in AimdConcurrencyLimitTests
+        var report = new LoadDriver(64, 1000).run(() -> client.geocodeAsync("1109 N Highland St. Arlington VA"));
+
+        assertEquals(0, report.errors());
+
+        // From now on, latency grows with every request above 4 in flight
+        server.capacity(4);
+        report = new LoadDriver(64, 1000).run(() -> client.geocodeAsync("1109 N Highland St. Arlington VA"));
+
+        assertEquals(0, report.errors());
+        assertTrue(client.concurrencyLimit() <= 16, "limit is " + client.concurrencyLimit());
+    }
+
+    @Test
+    public void testAdaptiveConcurrencyGrowsWithReservation() throws InterruptedException {
+        server.latency(FakeGeocodioServer.LatencyDistribution.fixed(Duration.ofMillis(5)));
+        var client = newClient(options -> options
+                .maxConcurrentRequests(64)
+                .reservedInteractiveRequests(16)
+                .adaptiveConcurrency(true));
+        int initialLimit = client.concurrencyLimit();
+        var request = GeocodingRequestBuilder.builder().q("1109 N Highland St. Arlington VA").build();
+
+        // Runs until the limit grew rather than for a fixed time, so a slow machine only makes it take longer
+        for (int round = 0; round < 20 && client.concurrencyLimit() < initialLimit + 4; round++) {
+            new LoadDriver(64, 500).run(() -> client.geocodeAsync(request, RequestPriority.BULK));
+        }
+
+        assertTrue(client.concurrencyLimit() >= initialLimit + 4, "limit is " + client.concurrencyLimit());
+        assertTrue(server.maxInFlight() > initialLimit - 16);
+    }
+
+    @Test
+    public void testAdaptiveConcurrencyBacksOffOnErrors() throws InterruptedException {
+        server.serverErrorRate(0.5);
+        var client = newAdaptiveClient(64);
+        int initialLimit = client.concurrencyLimit();
+
+        new LoadDriver(8, 200).run(() -> client.geocodeAsync("1109 N Highland St. Arlington VA"));
+
+        assertTrue(client.concurrencyLimit() < initialLimit);
+    }
+
+    @Test
+    public void testApiKeyPoolE2E() throws ExecutionException, InterruptedException {
+        server.dailyQuota("key-a", 5);
+        var client = newClient(List.of(new ApiKeyQuota("key-a"), new ApiKeyQuota("key-b", null, 20)),
+                UnaryOperator.identity());
+        var failures = 0;
+
+        for (int i = 0; i < 20; i++) {
+            try {
+                client.geocodeAsync("1109 N Highland St. Arlington VA").get();
+            } catch (ExecutionException e) {
+                assertEquals(403, assertInstanceOf(GeocodioStatusCodeException.class, e.getCause()).statusCode());
+                failures++;
+            }
+        }
+
+        assertEquals(1, failures);
+        assertEquals(5, server.lookupCount("key-a"));
+        assertEquals(14, server.lookupCount("key-b"));
+        var usage = client.apiKeyUsage();
+        assertEquals(1, usage.get(0).quotaErrors());
+        assertNotNull(usage.get(0).disabledUntil());
+        assertEquals(14, usage.get(1).lookupsToday());
+        // key-b would exceed its configured quota, and key-a is known to be over its daily maximum
+        var exception = assertThrows(ExecutionException.class,
+                () -> client.batchGeocodeAsync(BatchGeocodingRequestBuilder.builder()
+                        .qs(FakeGeocodioServer.syntheticQueries(10))
+                        .build()).get());
+        assertInstanceOf(GeocodioQuotaExceededException.class, exception.getCause());
+        assertEquals(5, server.lookupCount("key-a"));
+    }
+
+    @Test
+    public void testBulkLeavesInteractiveShareOfKeyE2E() throws ExecutionException, InterruptedException {
+        var client = newClient(List.of(new ApiKeyQuota("key-a", null, 20)), UnaryOperator.identity());
+        var bulkRequest = BatchGeocodingRequestBuilder.builder().qs(FakeGeocodioServer.syntheticQueries(10)).build();
+        client.batchGeocodeAsync(bulkRequest).get();
+
+        var exception = assertThrows(ExecutionException.class, () -> client.batchGeocodeAsync(bulkRequest).get());
+
+        assertInstanceOf(GeocodioQuotaExceededException.class, exception.getCause());
+        assertEquals(1, client.geocodeAsync("1109 N Highland St. Arlington VA").get().results().size());
+        assertEquals(11, server.lookupCount("key-a"));
+    }
+
+    @Test
+    public void testSingleKeyAfterDailyMaximumE2E() throws ExecutionException, InterruptedException {
+        server.dailyQuota("test-key", 1);
+        var client = newClient(true);
+        client.geocodeAsync("1109 N Highland St. Arlington VA").get();
+
+        for (int i = 0; i < 3; i++) {
+            var exception = assertThrows(ExecutionException.class,
+                    () -> client.geocodeAsync("1109 N Highland St. Arlington VA").get());
+            assertEquals(403, assertInstanceOf(GeocodioStatusCodeException.class, exception.getCause()).statusCode());
+        }
+        assertEquals(4, server.requestCount());
+    }
+
+    @Test
+    public void testQueuedRequestsOnExhaustedKeysE2E() {
+        server.latency(FakeGeocodioServer.LatencyDistribution.fixed(Duration.ofMillis(200)));
+        var client = newClient(List.of(new ApiKeyQuota("key-a", null, 1)), options -> options.maxConcurrentRequests(1));
+        var request = GeocodingRequestBuilder.builder().q("1109 N Highland St. Arlington VA").build();
+        var first = client.geocodeAsync(request);
+        var queued = new ArrayList<CompletableFuture<?>>();
+        for (int i = 0; i < 50_000; i++) {
+            queued.add(client.geocodeAsync(request, RequestPriority.BULK));
+        }
+
+        first.join();
+
+        for (var future : queued) {
+            var exception = assertThrows(ExecutionException.class, future::get);
+            assertInstanceOf(GeocodioQuotaExceededException.class, exception.getCause());
+        }
+        var stats = client.laneStats(RequestPriority.BULK);
+        assertEquals(0, stats.queued());
+        assertEquals(0, stats.inFlight());
+        assertEquals(1, server.requestCount());
+    }
+
+    @Test
+    public void testInternStringsE2E() throws ExecutionException, InterruptedException {
+        var client = newClient(options -> options.internStrings(true));
+        var request = BatchGeocodingRequestBuilder.builder().qs(FakeGeocodioServer.syntheticQueries(100)).build();
+
+        var response = client.batchGeocodeAsync(request).get();
+
+        var first = response.results().get(0).response().results().get(0);
+        var last = response.results().get(99).response().results().get(0);
+        assertSame(first.addressComponents().state(), last.addressComponents().state());
+        assertSame(first.addressComponents().county(), last.addressComponents().county());
+        assertSame(first.accuracyType(), last.accuracyType());
+        assertNotSame(first.formattedAddress(), last.formattedAddress());
+        // The input address components are deduplicated too
+        assertTrue(client.internedStringStats().hits() >= 99 * 7);
+        assertTrue(client.internedStringStats().bytesSaved() > 0);
+        assertNull(newClient(true).internedStringStats());
+    }
+
+    private GeocodioClient newAdaptiveClient(int maxConcurrentRequests) {
+        return newClient(options -> options.maxConcurrentRequests(maxConcurrentRequests).adaptiveConcurrency(true));
+    }
+
+    private GeocodioClient newClient(boolean gzip) {
+        return newClient(options -> options.gzip(gzip));
+    }
+
+    private GeocodioClient newClient(UnaryOperator<GeocodioClientOptionsBuilder> options) {
+        return newClient(List.of(new ApiKeyQuota("test-key")), options);
+    }
+
+    /**
+     * @param options Customizes options that already point at the fake server
+     */
+    private GeocodioClient newClient(List<ApiKeyQuota> apiKeys, UnaryOperator<GeocodioClientOptionsBuilder> options) {
+        return new GeocodioClient(HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build(), apiKeys,
+                options.apply(GeocodioClientOptionsBuilder.builder().BaseURL(server.baseURL())).build());
+    }
+}
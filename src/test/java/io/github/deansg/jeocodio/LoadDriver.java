@@ -0,0 +1,106 @@
+package io.github.deansg.jeocodio;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A closed-loop load generator: keeps {@code concurrency} operations in flight, starting a new one whenever one
+ * completes, until {@code requests} operations were issued. Latencies are measured on the client side, from the call
+ * to the operation until its future completes.
+ */
+public class LoadDriver {
+    private final int concurrency;
+    private final int requests;
+
+    public LoadDriver(int concurrency, int requests) {
+        if (concurrency < 1 || requests < 1) {
+            throw new IllegalArgumentException("concurrency and requests must be positive");
+        }
+        this.concurrency = concurrency;
+        this.requests = requests;
+    }
+
+    public LoadReport run(Supplier<CompletableFuture<?>> operation) throws InterruptedException {
+        var run = new Run(operation);
+        long start = System.nanoTime();
+        for (int i = 0; i < Math.min(concurrency, requests); i++) {
+            run.issueNext();
+        }
+        run.done.await();
+        long elapsedNanos = System.nanoTime() - start;
+        Arrays.sort(run.latenciesNanos);
+        return new LoadReport(concurrency, requests, run.errors.get(), Duration.ofNanos(elapsedNanos),
+                requests / (elapsedNanos / 1e9),
+                Duration.ofNanos(percentile(run.latenciesNanos, 0.5)),
+                Duration.ofNanos(percentile(run.latenciesNanos, 0.99)));
+    }
+
+    private class Run {
+        private final Supplier<CompletableFuture<?>> operation;
+        private final long[] latenciesNanos = new long[requests];
+        private final AtomicInteger issued = new AtomicInteger();
+        private final AtomicInteger errors = new AtomicInteger();
+        private final CountDownLatch done = new CountDownLatch(requests);
+        // Operations waiting to be issued. Only the thread that raises it from 0 issues them, so operations that
+        // complete inline add to the loop below instead of recursing.
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private Run(Supplier<CompletableFuture<?>> operation) {
+            this.operation = operation;
+        }
+
+        private void issueNext() {
+            if (pending.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                issue();
+            } while (pending.decrementAndGet() != 0);
+        }
+
+        private void issue() {
+            int index = issued.getAndIncrement();
+            if (index >= requests) {
+                return;
+            }
+            long start = System.nanoTime();
+            CompletableFuture<?> future;
+            try {
+                future = operation.get();
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            future.whenComplete((result, error) -> {
+                latenciesNanos[index] = System.nanoTime() - start;
+                if (error != null) {
+                    errors.incrementAndGet();
+                }
+                done.countDown();
+                issueNext();
+            });
+        }
+    }
+
+    private static long percentile(long[] sortedValues, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedValues.length) - 1;
+        return sortedValues[Math.max(0, Math.min(index, sortedValues.length - 1))];
+    }
+
+    public record LoadReport(int concurrency,
+                             int requests,
+                             int errors,
+                             Duration elapsed,
+                             double throughput,
+                             Duration p50,
+                             Duration p99) {
+        @Override
+        public String toString() {
+            return String.format("concurrency=%-4d requests=%-6d errors=%-5d throughput=%8.1f req/s p50=%7.2f ms p99=%7.2f ms",
+                    concurrency, requests, errors, throughput, p50.toNanos() / 1e6, p99.toNanos() / 1e6);
+        }
+    }
+}
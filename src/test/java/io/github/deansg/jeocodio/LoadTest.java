@@ -0,0 +1,73 @@
+package io.github.deansg.jeocodio;
+
+import io.github.deansg.jeocodio.models.BatchGeocodingRequestBuilder;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+public class LoadTest {
+    private static final int[] CONCURRENCY_LEVELS = {1, 4, 16, 64};
+
+    @Disabled("Should be used for local load testing, prints a report instead of asserting")
+    @Test
+    public void testGeocodeLoad() throws IOException, InterruptedException {
+        try (var server = FakeGeocodioServer.start()) {
+            server.latency(FakeGeocodioServer.LatencyDistribution.logNormal(Duration.ofMillis(20), 0.5))
+                    .tooManyRequestsRate(0.01)
+                    .serverErrorRate(0.005);
+            var client = newClient(server);
+            System.out.println("geocodeAsync:");
+            for (int concurrency : CONCURRENCY_LEVELS) {
+                var report = new LoadDriver(concurrency, 50 * concurrency + 200)
+                        .run(() -> client.geocodeAsync("1109 N Highland St. Arlington VA"));
+                System.out.println(report);
+            }
+        }
+    }
+
+    @Disabled("Should be used for local load testing, prints a report instead of asserting")
+    @Test
+    public void testBatchGeocodeLoad() throws IOException, InterruptedException {
+        try (var server = FakeGeocodioServer.start()) {
+            server.latency(FakeGeocodioServer.LatencyDistribution.uniform(Duration.ofMillis(50), Duration.ofMillis(150)));
+            var client = newClient(server);
+            var request = BatchGeocodingRequestBuilder.builder()
+                    .qs(FakeGeocodioServer.syntheticQueries(1000))
+                    .build();
+            System.out.println("batchGeocodeAsync, 1000 addresses per batch:");
+            for (int concurrency : CONCURRENCY_LEVELS) {
+                var report = new LoadDriver(concurrency, 4 * concurrency + 20)
+                        .run(() -> client.batchGeocodeAsync(request));
+                System.out.println(report);
+            }
+        }
+    }
+
+    @Disabled("Should be used for local load testing, prints a report instead of asserting")
+    @Test
+    public void testAdaptiveConcurrencyLoad() throws IOException, InterruptedException {
+        try (var server = FakeGeocodioServer.start()) {
+            server.latency(FakeGeocodioServer.LatencyDistribution.logNormal(Duration.ofMillis(20), 0.3)).capacity(16);
+            var client = new GeocodioClient(HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build(), "test-key",
+                    GeocodioClientOptionsBuilder.builder()
+                            .BaseURL(server.baseURL())
+                            .maxConcurrentRequests(128)
+                            .adaptiveConcurrency(true)
+                            .build());
+            System.out.println("geocodeAsync with adaptive concurrency, server capacity 16:");
+            for (int concurrency : CONCURRENCY_LEVELS) {
+                var report = new LoadDriver(concurrency, 50 * concurrency + 200)
+                        .run(() -> client.geocodeAsync("1109 N Highland St. Arlington VA"));
+                System.out.println(report + " limit=" + client.concurrencyLimit());
+            }
+        }
+    }
+
+    private static GeocodioClient newClient(FakeGeocodioServer server) {
+        return new GeocodioClient(HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build(), "test-key",
+                GeocodioClientOptionsBuilder.builder().BaseURL(server.baseURL()).build());
+    }
+}
@@ -0,0 +1,207 @@
+package io.github.deansg.jeocodio;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestSchedulerTests {
+    private final List<CompletableFuture<String>> sent = new ArrayList<>();
+    private final List<String> sentNames = new ArrayList<>();
+
+    @Test
+    public void testBulkCannotUseReservedSlots() {
+        var scheduler = new RequestScheduler(3, 1);
+
+        submit(scheduler, RequestPriority.BULK, "bulk-1");
+        submit(scheduler, RequestPriority.BULK, "bulk-2");
+        submit(scheduler, RequestPriority.BULK, "bulk-3");
+
+        assertEquals(List.of("bulk-1", "bulk-2"), sentNames);
+        assertEquals(1, scheduler.stats(RequestPriority.BULK).queued());
+
+        submit(scheduler, RequestPriority.INTERACTIVE, "interactive-1");
+
+        assertEquals(List.of("bulk-1", "bulk-2", "interactive-1"), sentNames);
+        assertEquals(2, scheduler.stats(RequestPriority.BULK).inFlight());
+        assertEquals(1, scheduler.stats(RequestPriority.INTERACTIVE).inFlight());
+    }
+
+    @Test
+    public void testInteractiveIsDispatchedFirst() throws ExecutionException, InterruptedException {
+        var scheduler = new RequestScheduler(1, 0);
+        var first = submit(scheduler, RequestPriority.BULK, "bulk-1");
+        submit(scheduler, RequestPriority.BULK, "bulk-2");
+        var interactive = submit(scheduler, RequestPriority.INTERACTIVE, "interactive-1");
+
+        sent.get(0).complete("done");
+
+        assertEquals("done", first.get());
+        assertEquals(List.of("bulk-1", "interactive-1"), sentNames);
+        assertFalse(interactive.isDone());
+        assertEquals(1, scheduler.stats(RequestPriority.BULK).queued());
+    }
+
+    @Test
+    public void testFailuresReleaseSlots() {
+        var scheduler = new RequestScheduler(1, 0);
+        var failed = submit(scheduler, RequestPriority.INTERACTIVE, "interactive-1");
+        submit(scheduler, RequestPriority.INTERACTIVE, "interactive-2");
+
+        sent.get(0).completeExceptionally(new GeocodioStatusCodeException(500, ""));
+
+        var exception = assertThrows(ExecutionException.class, failed::get);
+        assertInstanceOf(GeocodioStatusCodeException.class, exception.getCause());
+        assertEquals(List.of("interactive-1", "interactive-2"), sentNames);
+    }
+
+    @Test
+    public void testManySynchronousFailures() {
+        var scheduler = new RequestScheduler(1, 0);
+        var first = submit(scheduler, RequestPriority.BULK, "bulk-1");
+        var failing = new ArrayList<CompletableFuture<String>>();
+        for (int i = 0; i < 50_000; i++) {
+            failing.add(scheduler.submit(RequestPriority.BULK, 1, apiKey -> {
+                throw new GeocodioQuotaExceededException(1);
+            }));
+        }
+
+        sent.get(0).complete("done");
+
+        assertTrue(first.isDone());
+        failing.forEach(future -> assertTrue(future.isCompletedExceptionally()));
+        var stats = scheduler.stats(RequestPriority.BULK);
+        assertEquals(0, stats.queued());
+        assertEquals(0, stats.inFlight());
+        assertEquals(50_001, stats.dispatched());
+    }
+
+    @Test
+    public void testBulkHeldBackByReservationCountsAsLimitInUse() {
+        var samples = new ArrayList<Integer>();
+        var scheduler = new RequestScheduler(new ConcurrencyLimit() {
+            @Override
+            public int current() {
+                return 4;
+            }
+
+            @Override
+            public int max() {
+                return 8;
+            }
+
+            @Override
+            public void onSample(long rttNanos, int inFlight, boolean overload) {
+                samples.add(inFlight);
+            }
+        }, 3);
+        submit(scheduler, RequestPriority.BULK, "bulk-1");
+        submit(scheduler, RequestPriority.BULK, "bulk-2");
+        submit(scheduler, RequestPriority.BULK, "bulk-3");
+
+        sent.get(0).complete("done");
+        sent.get(1).complete("done");
+        sent.get(2).complete("done");
+
+        // Only the last one completed with nothing left in the queue
+        assertEquals(List.of(4, 4, 1), samples);
+    }
+
+    @Test
+    public void testWaitsUntilAdmitted() throws ExecutionException, InterruptedException, TimeoutException {
+        var admission = new FakeAdmission();
+        var scheduler = new RequestScheduler(ConcurrencyLimit.fixed(2), 0, admission);
+
+        var waiting = scheduler.submit(RequestPriority.INTERACTIVE, 1, CompletableFuture::completedFuture);
+
+        assertFalse(waiting.isDone());
+        assertEquals(0, scheduler.stats(RequestPriority.INTERACTIVE).inFlight());
+        admission.interactiveKey = "key";
+        assertEquals("key", waiting.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testWaitingBulkDoesNotBlockInteractive() {
+        var admission = new FakeAdmission();
+        admission.interactiveKey = "key";
+        var scheduler = new RequestScheduler(ConcurrencyLimit.fixed(2), 0, admission);
+
+        var bulk = scheduler.submit(RequestPriority.BULK, 1, CompletableFuture::completedFuture);
+        var interactive = scheduler.submit(RequestPriority.INTERACTIVE, 1, CompletableFuture::completedFuture);
+
+        assertFalse(bulk.isDone());
+        assertEquals("key", interactive.join());
+        assertEquals(1, scheduler.stats(RequestPriority.BULK).queued());
+    }
+
+    @Test
+    public void testRejectedRequestsFailWithoutSlot() {
+        var admission = new FakeAdmission();
+        admission.rejection = new GeocodioQuotaExceededException(1);
+        var scheduler = new RequestScheduler(ConcurrencyLimit.fixed(1), 0, admission);
+
+        var rejected = scheduler.submit(RequestPriority.BULK, 1, CompletableFuture::completedFuture);
+
+        var exception = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(GeocodioQuotaExceededException.class, exception.getCause());
+        assertEquals(0, scheduler.stats(RequestPriority.BULK).queued());
+        assertEquals(0, scheduler.stats(RequestPriority.BULK).dispatched());
+    }
+
+    @Test
+    public void testStats() {
+        var scheduler = new RequestScheduler(1, 0);
+        submit(scheduler, RequestPriority.BULK, "bulk-1");
+        submit(scheduler, RequestPriority.BULK, "bulk-2");
+
+        sent.get(0).complete("done");
+
+        var stats = scheduler.stats(RequestPriority.BULK);
+        assertEquals(RequestPriority.BULK, stats.priority());
+        assertEquals(0, stats.queued());
+        assertEquals(1, stats.inFlight());
+        assertEquals(2, stats.dispatched());
+        assertTrue(stats.maxQueueTime().compareTo(stats.averageQueueTime()) >= 0);
+        assertEquals(0, scheduler.stats(RequestPriority.INTERACTIVE).dispatched());
+    }
+
+    @Test
+    public void testInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new RequestScheduler(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new RequestScheduler(2, 2));
+    }
+
+    private CompletableFuture<String> submit(RequestScheduler scheduler, RequestPriority priority, String name) {
+        return scheduler.submit(priority, 1, apiKey -> {
+            var future = new CompletableFuture<String>();
+            sent.add(future);
+            sentNames.add(name);
+            return future;
+        });
+    }
+
+    private static class FakeAdmission implements RequestAdmission {
+        private volatile String interactiveKey;
+        private volatile RuntimeException rejection;
+
+        @Override
+        public String acquire(RequestPriority priority, int lookups) {
+            if (rejection != null) {
+                throw rejection;
+            }
+            return priority == RequestPriority.INTERACTIVE ? interactiveKey : null;
+        }
+
+        @Override
+        public Duration retryDelay() {
+            return Duration.ofMillis(10);
+        }
+    }
+}
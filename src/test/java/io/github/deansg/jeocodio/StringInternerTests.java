@@ -0,0 +1,67 @@
+package io.github.deansg.jeocodio;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StringInternerTests {
+
+    @Test
+    public void testReturnsSameInstance() {
+        var interner = new StringInterner();
+        var first = new String("Arlington County");
+        var second = new String("Arlington County");
+
+        assertSame(first, interner.intern(first));
+        assertSame(first, interner.intern(second));
+        assertNull(interner.intern(null));
+
+        var stats = interner.stats();
+        assertEquals(1, stats.size());
+        assertEquals(1, stats.hits());
+        assertEquals(StringInterner.estimateSize(second), stats.bytesSaved());
+    }
+
+    @Test
+    public void testStopsGrowingWhenFull() {
+        var interner = new StringInterner(2);
+        interner.intern("VA");
+        interner.intern("DC");
+        var third = new String("MD");
+
+        assertSame(third, interner.intern(third));
+        assertNotSame(third, interner.intern(new String("MD")));
+        assertEquals("DC", interner.intern(new String("DC")));
+
+        var stats = interner.stats();
+        assertEquals(2, stats.size());
+        assertEquals(2, stats.rejected());
+        assertEquals(1, stats.hits());
+    }
+
+    @Test
+    public void testConcurrentInternsShareInstance() {
+        var interner = new StringInterner(100);
+
+        var interned = IntStream.range(0, 1000)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> interner.intern(new String("US"))))
+                .map(CompletableFuture::join)
+                .toList();
+
+        interned.forEach(value -> assertSame(interned.get(0), value));
+        assertEquals(1, interner.stats().size());
+        assertEquals(999, interner.stats().hits());
+    }
+
+    @Test
+    public void testEstimateSize() {
+        assertEquals(24 + 24, StringInterner.estimateSize("VA"));
+        assertEquals(24 + 24, StringInterner.estimateSize("Virginia"));
+        assertEquals(24 + 32, StringInterner.estimateSize("Arlington"));
+        assertEquals(24 + 24, StringInterner.estimateSize("Z\u00fcrich"));
+        assertEquals(24 + 24, StringInterner.estimateSize("\u6771\u4eac"));
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.deansg.jeocodio;
+
+import io.github.deansg.jeocodio.models.BatchGeocodingRequestBuilder;
+import io.github.deansg.jeocodio.models.BatchGeocodingResponse;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+
+public class StringInterningBenchmark {
+    private static final int BATCHES = 20;
+    private static final int BATCH_SIZE = 5000;
+
+    @Disabled("Should be used for local benchmarking, prints a report instead of asserting")
+    @Test
+    public void testRetainedHeap() throws IOException, ExecutionException, InterruptedException {
+        try (var server = FakeGeocodioServer.start()) {
+            var request = BatchGeocodingRequestBuilder.builder()
+                    .qs(FakeGeocodioServer.syntheticQueries(BATCH_SIZE))
+                    .build();
+            for (boolean internStrings : new boolean[]{false, true}) {
+                var client = new GeocodioClient(HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build(),
+                        "test-key", GeocodioClientOptionsBuilder.builder()
+                        .BaseURL(server.baseURL())
+                        .internStrings(internStrings)
+                        .build());
+                long before = usedHeap();
+                var retained = new ArrayList<BatchGeocodingResponse>(BATCHES);
+                for (int i = 0; i < BATCHES; i++) {
+                    retained.add(client.batchGeocodeAsync(request).get());
+                }
+                long after = usedHeap();
+                System.out.printf("internStrings=%s: %,d results retain %,d bytes%n",
+                        internStrings, retained.size() * BATCH_SIZE, after - before);
+                if (internStrings) {
+                    System.out.println(client.internedStringStats());
+                }
+            }
+        }
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        var runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,142 @@
+package io.github.deansg.jeocodio.binary;
+
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import io.github.deansg.jeocodio.models.BatchGeocodingResponse;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class BinaryFormatBenchmark {
+    private static final int BATCH_SIZE = 100_000;
+    private static final int ITERATIONS = 10;
+    private static final Gson GSON = new GsonBuilder()
+            .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+            .create();
+    private static final String[] STREET_NAMES = {"Highland", "Oak", "Maple", "Washington", "Lincoln", "Jefferson",
+            "Park", "Lake", "Hill", "Pine", "Cedar", "Elm", "Walnut", "Chestnut", "Spring", "Ridge", "Main", "Church",
+            "Mill", "Forest"};
+    private static final String[] STREET_SUFFIXES = {"St", "Ave", "Rd", "Blvd", "Dr", "Ln", "Ct", "Way"};
+    private static final String[] CITIES = {"Arlington", "Alexandria", "Fairfax", "Falls Church", "Reston",
+            "Vienna", "McLean", "Herndon", "Springfield", "Annandale"};
+
+    @Disabled("Should be used for local benchmarking, prints a report instead of asserting")
+    @Test
+    public void testLoadTimeAndSize() throws IOException {
+        var json = variedBatchResponse(BATCH_SIZE);
+        var jsonPath = Files.createTempFile("jeocodio", ".json");
+        var binaryPath = Files.createTempFile("jeocodio", ".bin");
+        try {
+            Files.writeString(jsonPath, json);
+            GeocodingResultsWriter.write(GSON.fromJson(json, BatchGeocodingResponse.class), binaryPath);
+            System.out.printf("%,d batch items: JSON %,d bytes, binary %,d bytes%n",
+                    BATCH_SIZE, Files.size(jsonPath), Files.size(binaryPath));
+
+            for (int i = 0; i < ITERATIONS; i++) {
+                long start = System.nanoTime();
+                double jsonChecksum = loadJSON(jsonPath);
+                long jsonNanos = System.nanoTime() - start;
+                start = System.nanoTime();
+                double binaryChecksum = loadBinaryColumns(binaryPath);
+                long binaryColumnsNanos = System.nanoTime() - start;
+                start = System.nanoTime();
+                loadBinaryResults(binaryPath);
+                long binaryResultsNanos = System.nanoTime() - start;
+                System.out.printf("JSON parse %7.1f ms, binary columns %7.1f ms, binary full results %7.1f ms%s%n",
+                        jsonNanos / 1e6, binaryColumnsNanos / 1e6, binaryResultsNanos / 1e6,
+                        jsonChecksum == binaryChecksum ? "" : " (checksum mismatch!)");
+            }
+        } finally {
+            Files.deleteIfExists(jsonPath);
+            Files.deleteIfExists(binaryPath);
+        }
+    }
+
+    /**
+     * @return A batch geocoding response body where every row has its own house number, formatted address and
+     * coordinates, and the street, city and zip repeat the way they would within a region, so that the binary
+     * dictionary doesn't get an unrealistic advantage over JSON
+     */
+    private static String variedBatchResponse(int count) {
+        var random = new Random(42);
+        var results = new JsonArray(count);
+        for (int i = 0; i < count; i++) {
+            var number = String.valueOf(1 + random.nextInt(9999));
+            var street = STREET_NAMES[random.nextInt(STREET_NAMES.length)] + " "
+                    + STREET_SUFFIXES[random.nextInt(STREET_SUFFIXES.length)];
+            int cityIndex = random.nextInt(CITIES.length);
+            var city = CITIES[cityIndex];
+            var zip = String.valueOf(22000 + cityIndex * 40 + random.nextInt(40));
+            var formattedAddress = String.format("%s %s, %s, VA %s", number, street, city, zip);
+
+            var addressComponents = new JsonObject();
+            addressComponents.addProperty("number", number);
+            addressComponents.addProperty("street", street.substring(0, street.lastIndexOf(' ')));
+            addressComponents.addProperty("suffix", street.substring(street.lastIndexOf(' ') + 1));
+            addressComponents.addProperty("formatted_street", street);
+            addressComponents.addProperty("city", city);
+            addressComponents.addProperty("county", city + " County");
+            addressComponents.addProperty("state", "VA");
+            addressComponents.addProperty("zip", zip);
+            addressComponents.addProperty("country", "US");
+            var location = new JsonObject();
+            location.addProperty("lat", 38.5 + random.nextDouble());
+            location.addProperty("lng", -77.5 + random.nextDouble());
+            var result = new JsonObject();
+            result.add("address_components", addressComponents);
+            result.addProperty("formatted_address", formattedAddress);
+            result.add("location", location);
+            result.addProperty("accuracy", random.nextInt(2) == 0 ? 1 : 0.9);
+            result.addProperty("accuracy_type", random.nextInt(2) == 0 ? "rooftop" : "range_interpolation");
+            result.addProperty("source", "Virginia GIS Clearinghouse");
+
+            var resultArray = new JsonArray(1);
+            resultArray.add(result);
+            var response = new JsonObject();
+            response.add("results", resultArray);
+            var item = new JsonObject();
+            item.addProperty("query", formattedAddress);
+            item.add("response", response);
+            results.add(item);
+        }
+        var response = new JsonObject();
+        response.add("results", results);
+        return GSON.toJson(response);
+    }
+
+    private static double loadJSON(Path path) throws IOException {
+        var response = GSON.fromJson(Files.readString(path), BatchGeocodingResponse.class);
+        double checksum = 0;
+        for (var item : response.results()) {
+            for (var result : item.response().results()) {
+                checksum += result.location().lat() + result.location().lng();
+            }
+        }
+        return checksum;
+    }
+
+    private static double loadBinaryColumns(Path path) throws IOException {
+        try (var results = MappedGeocodingResults.open(path)) {
+            double checksum = 0;
+            for (int row = 0; row < results.size(); row++) {
+                checksum += results.latitude(row) + results.longitude(row);
+            }
+            return checksum;
+        }
+    }
+
+    private static void loadBinaryResults(Path path) throws IOException {
+        try (var results = MappedGeocodingResults.open(path)) {
+            for (int row = 0; row < results.size(); row++) {
+                results.result(row);
+            }
+        }
+    }
+}
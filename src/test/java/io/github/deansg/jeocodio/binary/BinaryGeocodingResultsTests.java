@@ -0,0 +1,172 @@
+package io.github.deansg.jeocodio.binary;
+
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import io.github.deansg.jeocodio.TestUtils;
+import io.github.deansg.jeocodio.models.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryGeocodingResultsTests {
+    private static final Gson GSON = new GsonBuilder()
+            .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+            .create();
+    private Path path;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        path = Files.createTempFile("jeocodio", ".bin");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    public void testBatchRoundTrip() throws IOException {
+        var response = GSON.fromJson(readResource("sample_batch_geocoding_response.json"), BatchGeocodingResponse.class);
+
+        GeocodingResultsWriter.write(response, path);
+
+        try (var results = MappedGeocodingResults.open(path)) {
+            var expectedRows = new ArrayList<GeocodingResult>();
+            var expectedQueries = new ArrayList<String>();
+            var expectedItems = new ArrayList<Integer>();
+            for (int i = 0; i < response.results().size(); i++) {
+                var item = response.results().get(i);
+                for (var result : item.response().results()) {
+                    expectedRows.add(result);
+                    expectedQueries.add(item.query());
+                    expectedItems.add(i);
+                }
+            }
+            assertEquals(expectedRows.size(), results.size());
+            for (int row = 0; row < results.size(); row++) {
+                var expected = expectedRows.get(row);
+                assertEquals(withoutFieldsAndWarnings(expected), results.result(row));
+                assertEquals(expectedQueries.get(row), results.query(row));
+                assertEquals((int) expectedItems.get(row), results.batchItemIndex(row));
+                assertEquals(expected.location().lat(), results.latitude(row), 0);
+                assertEquals(expected.location().lng(), results.longitude(row), 0);
+                assertEquals(expected.accuracy(), results.accuracy(row), 0);
+            }
+        }
+    }
+
+    @Test
+    public void testResultsRoundTrip() throws IOException {
+        var response = GSON.fromJson(readResource("sample_reverse_geocoding_response.json"), ReverseGeocodingResponse.class);
+
+        GeocodingResultsWriter.write(response.results(), path);
+
+        try (var results = MappedGeocodingResults.open(path)) {
+            assertEquals(2, results.size());
+            assertEquals(withoutFieldsAndWarnings(response.results().get(1)), results.result(1));
+            assertNull(results.query(1));
+            assertEquals(-1, results.batchItemIndex(1));
+        }
+    }
+
+    @Test
+    public void testNulls() throws IOException {
+        var result = new GeocodingResult(null, "Somewhere", null, null, null, null, null, null);
+
+        GeocodingResultsWriter.write(List.of(result), path);
+
+        try (var results = MappedGeocodingResults.open(path)) {
+            assertEquals(result, results.result(0));
+            assertTrue(Double.isNaN(results.latitude(0)));
+            assertTrue(Double.isNaN(results.accuracy(0)));
+        }
+    }
+
+    @Test
+    public void testSharedStrings() throws IOException {
+        var components = new AddressComponents("1", null, null, "Main", "St", null, null, null, "Arlington",
+                "Arlington County", "VA", "22201", "US", "Main St");
+        var first = new GeocodingResult(components, "1 Main St", new Location(1.0, 2.0), 1.0, "rooftop", "A", null, null);
+        var second = new GeocodingResult(components, "1 Main St", new Location(1.0, 2.0), 1.0, "rooftop", "A", null, null);
+
+        GeocodingResultsWriter.write(List.of(first, second), path);
+
+        try (var results = MappedGeocodingResults.open(path)) {
+            assertSame(results.result(0).addressComponents().state(), results.result(1).addressComponents().state());
+            assertSame(results.result(0).accuracyType(), results.result(1).accuracyType());
+        }
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        GeocodingResultsWriter.write(List.of(), path);
+
+        try (var results = MappedGeocodingResults.open(path)) {
+            assertEquals(0, results.size());
+            assertThrows(IndexOutOfBoundsException.class, () -> results.result(0));
+        }
+    }
+
+    @Test
+    public void testInvalidFile() throws IOException {
+        Files.writeString(path, "{\"results\": []}");
+
+        assertThrows(IOException.class, () -> MappedGeocodingResults.open(path));
+    }
+
+    @Test
+    public void testTruncatedFile() throws IOException {
+        GeocodingResultsWriter.write(List.of(new GeocodingResult(null, "Somewhere", null, null, null, null, null, null)), path);
+        var bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+
+        assertThrows(IOException.class, () -> MappedGeocodingResults.open(path));
+    }
+
+    @Test
+    public void testCorruptHeader() throws IOException {
+        GeocodingResultsWriter.write(List.of(new GeocodingResult(null, "Somewhere", null, null, null, null, null, null)), path);
+        var original = Files.readAllBytes(path);
+
+        assertCorrupt(original, BinaryLayout.ROW_COUNT_OFFSET, -1);
+        assertCorrupt(original, BinaryLayout.ROW_COUNT_OFFSET, 1_000);
+        assertCorrupt(original, BinaryLayout.DICTIONARY_SIZE_OFFSET, -1);
+        assertCorrupt(original, BinaryLayout.DICTIONARY_SIZE_OFFSET, 1_000);
+        assertCorrupt(original, BinaryLayout.DICTIONARY_INDEX_OFFSET_OFFSET, 8);
+        assertCorrupt(original, BinaryLayout.DICTIONARY_DATA_OFFSET_OFFSET, Long.MAX_VALUE);
+    }
+
+    private void assertCorrupt(byte[] original, int headerOffset, long value) throws IOException {
+        var buffer = ByteBuffer.wrap(original.clone()).order(ByteOrder.LITTLE_ENDIAN);
+        if (headerOffset == BinaryLayout.ROW_COUNT_OFFSET || headerOffset == BinaryLayout.DICTIONARY_SIZE_OFFSET) {
+            buffer.putInt(headerOffset, (int) value);
+        } else {
+            buffer.putLong(headerOffset, value);
+        }
+        Files.write(path, buffer.array());
+
+        assertThrows(IOException.class, () -> MappedGeocodingResults.open(path));
+    }
+
+    private static GeocodingResult withoutFieldsAndWarnings(GeocodingResult result) {
+        return new GeocodingResult(result.addressComponents(), result.formattedAddress(), result.location(),
+                result.accuracy(), result.accuracyType(), result.source(), null, null);
+    }
+
+    private static String readResource(String resourceName) throws IOException {
+        return new String(TestUtils.readResource(resourceName), StandardCharsets.UTF_8);
+    }
+}